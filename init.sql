@@ -5,6 +5,9 @@ CREATE DATABASE IF NOT EXISTS test
 
 USE rpg;
 
+-- Схема пересоздается целиком, поэтому и история миграций тоже: индексы из db/migration
+-- применятся заново при следующем запуске приложения
+DROP TABLE IF EXISTS flyway_schema_history;
 DROP TABLE IF EXISTS player;
 
 CREATE TABLE player
@@ -65,3 +68,14 @@ VALUES ('Ниус', 'Приходящий Без Шума', 'HOBBIT', 'ROGUE', '
      , ('Иллинас', 'Иероглиф', 'HOBBIT', 'WARRIOR', '2007-06-03', false, 115546, 47, 2054)
      , ('Ардонг', 'Вспышк A', 'HUMAN', 'WARLOCK', '2009-09-16', false, 24984, 21, 316)
      , ('Аттирис', 'и.о.Карвандоса', 'ELF', 'SORCERER', '2010-04-15', true, 60520, 34, 2480);
+
+DROP TABLE IF EXISTS player_seq;
+
+CREATE TABLE player_seq
+(
+    next_val BIGINT NOT NULL
+)
+    ENGINE = InnoDB;
+
+INSERT INTO player_seq(next_val)
+SELECT MAX(id) + 1 FROM player;
@@ -0,0 +1,126 @@
+package com.game.benchmark;
+
+import com.game.config.AppConfig;
+import com.game.config.WebConfig;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Нагрузочный тест асинхронной обработки /rest/players: 16 клиентов одновременно, пулы потоков платформы
+ * и виртуальных потоков (players.executor.type). Приложение поднимается с профилем prod, т.е. с пулом
+ * соединений HikariCP, который при виртуальных потоках и служит ограничением нагрузки.
+ * <p>
+ * По умолчанию БД - H2 в памяти; для измерения с настоящими сетевыми задержками можно передать
+ * -Djmh.args="AsyncExecutorBenchmark -jvmArgsAppend -Ddb.url=jdbc:mysql://... -Ddb.driver=..."
+ * Вариант virtual требует сборки и запуска на JDK 21: mvn -Pbenchmark,jdk21 test-compile exec:exec.
+ * Число клиентов меняется через -t. Результаты разных режимов сравнимы при -f 2 -wi 5 -i 5 -r 5 и больше:
+ * первые итерации еще идут с JIT-компиляцией, и на коротком прогоне погрешность больше самого значения.
+ * <p>
+ * Кроме числа операций в секунду выводятся счетчики ok и rejected (ответы 503).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AsyncExecutorBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String executorType;
+
+    @Param({"100000"})
+    private int rosterSize;
+
+    private AnnotationConfigWebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+        public long ok;
+        public long rejected;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("players.executor.type", executorType);
+        // Каждый запрос должен дойти до БД
+        System.setProperty("player.cache.maximumSize", "0");
+        System.setProperty("hibernate.cache.use_second_level_cache", "false");
+        System.setProperty("hibernate.cache.use_query_cache", "false");
+        if (System.getProperty("db.url") == null) {
+            System.setProperty("db.driver", "org.h2.Driver");
+            System.setProperty("db.url", "jdbc:h2:mem:async-load;MODE=MySQL;DB_CLOSE_DELAY=-1");
+            System.setProperty("db.username", "sa");
+            System.setProperty("db.password", "");
+        }
+
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().setActiveProfiles("prod");
+        context.register(AppConfig.class, WebConfig.class);
+        context.refresh();
+
+        PlayerListBenchmark.insertRoster(context.getBean(DataSource.class), SyntheticRoster.generate(rosterSize));
+
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getPlayer(Responses responses) throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(1, rosterSize + 1);
+        return perform(get("/rest/players/{id}", id), responses);
+    }
+
+    @Benchmark
+    public int getPlayers(Responses responses) throws Exception {
+        return perform(get("/rest/players").param("race", "ELF").param("order", "LEVEL").param("pageSize", "20"), responses);
+    }
+
+    private int perform(RequestBuilder request, Responses responses) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        int status = result.getResponse().getStatus();
+        if (status == 503) {
+            responses.rejected++;
+        } else {
+            responses.ok++;
+        }
+        return status;
+    }
+}
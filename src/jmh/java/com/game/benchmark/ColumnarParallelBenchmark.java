@@ -0,0 +1,99 @@
+package com.game.benchmark;
+
+import com.game.config.AppConfig;
+import com.game.controller.Paginator;
+import com.game.controller.PlayerFilter;
+import com.game.controller.PlayerOrder;
+import com.game.dto.PlayerDto;
+import com.game.service.PlayerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Движок columnar на большом ростере при разном числе потоков players.query.parallelism: 1 - фильтр
+ * и сортировка в потоке запроса, больше 1 - частями в ForkJoinPool этого размера. Порог выключен,
+ * чтобы параллельный режим работал на любой выборке. Ускорение ограничено числом ядер машины.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ColumnarParallelBenchmark {
+
+    @Param({"1000000"})
+    private int rosterSize;
+
+    @Param({"NONE", "BANNED_MIN_MAX_LEVEL"})
+    private FilterShape shape;
+
+    @Param({"EXPERIENCE", "NAME"})
+    private PlayerOrder order;
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int parallelism;
+
+    private AnnotationConfigWebApplicationContext context;
+    private PlayerService playerService;
+    private PlayerFilter filter;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("hibernate.cache.use_second_level_cache", "false");
+        System.setProperty("hibernate.cache.use_query_cache", "false");
+        System.setProperty("players.query.engine", "columnar");
+        System.setProperty("players.query.parallelism", String.valueOf(parallelism));
+        System.setProperty("players.query.parallelThreshold", "0");
+
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().setActiveProfiles("dev");
+        context.register(AppConfig.class);
+        context.refresh();
+
+        PlayerListBenchmark.insertRoster(context.getBean(DataSource.class), SyntheticRoster.generate(rosterSize));
+
+        playerService = context.getBean(PlayerService.class);
+        // Колоночное хранилище загружается первым запросом, он не должен попасть в замер
+        playerService.getPlayersCount(new PlayerFilter());
+        filter = shape.createFilter();
+        pageable = new Paginator().getPageable(shape.getPageNumber(), shape.getPageSize(), order);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Фильтр и сортировка всех подходящих строк, отдается первая страница
+    @Benchmark
+    public List<PlayerDto> list() {
+        return playerService.getPlayers(filter, pageable);
+    }
+
+    // Только фильтр
+    @Benchmark
+    public long count() {
+        return playerService.getPlayersCount(filter);
+    }
+}
@@ -0,0 +1,82 @@
+package com.game.benchmark;
+
+import com.game.controller.PlayerFilter;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+/**
+ * Комбинации фильтров и страниц из GetAllTest и выборочный поиск подстроки имени.
+ */
+public enum FilterShape {
+    NONE(null, null),
+    NAME_PAGE_NUMBER(1, null),
+    TITLE_PAGE_SIZE(null, 4),
+    NAME_SUBSTRING(null, null),
+    RACE_PROFESSION_AFTER_BEFORE(null, null),
+    RACE_PROFESSION_MIN_MAX_EXPERIENCE(null, null),
+    BANNED_MIN_MAX_LEVEL(null, null),
+    BANNED_MAX_LEVEL(null, null),
+    AFTER_BEFORE_MIN_MAX_EXPERIENCE(1, null);
+
+    private final Integer pageNumber;
+    private final Integer pageSize;
+
+    FilterShape(Integer pageNumber, Integer pageSize) {
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+    }
+
+    public Integer getPageNumber() {
+        return pageNumber;
+    }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    public PlayerFilter createFilter() {
+        PlayerFilter filter = new PlayerFilter();
+        switch (this) {
+            case NAME_PAGE_NUMBER:
+                filter.setName("ра");
+                break;
+            case NAME_SUBSTRING:
+                // Из нескольких слогов: подходит малая доля ростера, и индекс триграмм отсекает остальных
+                filter.setName("раниус");
+                break;
+            case TITLE_PAGE_SIZE:
+                filter.setTitle("ой");
+                break;
+            case RACE_PROFESSION_AFTER_BEFORE:
+                filter.setRace(Race.HUMAN);
+                filter.setProfession(Profession.WARRIOR);
+                filter.setBirthdayAfter(1041372000000L);
+                filter.setBirthdayBefore(1136066400000L);
+                break;
+            case RACE_PROFESSION_MIN_MAX_EXPERIENCE:
+                filter.setRace(Race.ELF);
+                filter.setProfession(Profession.SORCERER);
+                filter.setExperienceAfter(50000);
+                filter.setExperienceBefore(150000);
+                break;
+            case BANNED_MIN_MAX_LEVEL:
+                filter.setBanned(false);
+                filter.setLevelAfter(10);
+                filter.setLevelBefore(30);
+                break;
+            case BANNED_MAX_LEVEL:
+                filter.setBanned(false);
+                filter.setLevelBefore(20);
+                break;
+            case AFTER_BEFORE_MIN_MAX_EXPERIENCE:
+                filter.setBirthdayAfter(1104530400000L);
+                filter.setBirthdayBefore(1230760800000L);
+                filter.setExperienceAfter(30000);
+                filter.setExperienceBefore(100000);
+                break;
+            default:
+                break;
+        }
+        return filter;
+    }
+}
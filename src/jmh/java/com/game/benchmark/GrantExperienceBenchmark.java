@@ -0,0 +1,84 @@
+package com.game.benchmark;
+
+import com.game.config.AppConfig;
+import com.game.controller.PlayerFilter;
+import com.game.dto.BatchResultDto;
+import com.game.dto.PlayerDto;
+import com.game.entity.Race;
+import com.game.service.PlayerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Начисление опыта всем игрокам одной расы: одним UPDATE с расчетом уровня в БД против чтения
+ * игроков и записи их через POST /rest/players/batch, где уровень считается для каждого в JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GrantExperienceBenchmark {
+
+    private static final int AMOUNT = 1;
+
+    @Param({"100000"})
+    private int rosterSize;
+
+    private AnnotationConfigWebApplicationContext context;
+    private PlayerService playerService;
+    private PlayerFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().setActiveProfiles("dev");
+        context.register(AppConfig.class);
+        context.refresh();
+
+        PlayerListBenchmark.insertRoster(context.getBean(DataSource.class), SyntheticRoster.generate(rosterSize));
+
+        playerService = context.getBean(PlayerService.class);
+        filter = new PlayerFilter();
+        filter.setRace(Race.HUMAN);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int bulkUpdate() {
+        return playerService.grantExperience(filter, AMOUNT);
+    }
+
+    @Benchmark
+    public BatchResultDto batchUpdate() {
+        List<PlayerDto> players = playerService.getPlayers(filter, Pageable.unpaged());
+        for (PlayerDto player : players) {
+            player.setExperience(player.getExperience() + AMOUNT);
+        }
+        return playerService.savePlayers(players);
+    }
+}
@@ -0,0 +1,256 @@
+package com.game.benchmark;
+
+import com.game.controller.PlayerFilter;
+import com.game.controller.PlayerOrder;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Отчет о том, какие формы PlayerFilter и PlayerOrder обслуживаются индексами, а какие откатываются
+ * к полному просмотру таблицы, по выводу EXPLAIN.
+ * <p>
+ * Без аргументов создается H2 в памяти, к ней применяются миграции из db/migration и загружается
+ * синтетический набор игроков. С аргументами {@code <jdbcUrl> <user> <password>} проверяется уже
+ * мигрированная база, например MySQL:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java@index-report
+ * mvn -Pbenchmark test-compile exec:java@index-report -Dexec.args="jdbc:mysql://localhost:3306/rpg root root"
+ * </pre>
+ * Условия WHERE повторяют PlayerSpecifications по столбцам и операторам.
+ */
+public final class IndexUsageReport {
+
+    private static final int H2_ROSTER_SIZE = 20_000;
+    private static final Pattern H2_INDEX = Pattern.compile("/\\* [\\w.]+?\\.(\\w+)(: [^*]*)? \\*/");
+
+    private IndexUsageReport() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        DataSource dataSource;
+        if (args.length >= 3) {
+            dataSource = new DriverManagerDataSource(args[0], args[1], args[2]);
+        } else {
+            dataSource = new DriverManagerDataSource("jdbc:h2:mem:index-report;DB_CLOSE_DELAY=-1", "sa", "");
+            Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+            PlayerListBenchmark.insertRoster(dataSource, SyntheticRoster.generate(H2_ROSTER_SIZE));
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+        }
+
+        int scans = 0;
+        Map<String, PlayerFilter> shapes = createShapes();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            System.out.println("Database: " + connection.getMetaData().getDatabaseProductName()
+                    + " " + connection.getMetaData().getDatabaseProductVersion());
+
+            for (Map.Entry<String, PlayerFilter> shape : shapes.entrySet()) {
+                for (PlayerOrder order : getOrders(shape.getKey())) {
+                    List<Object> params = new ArrayList<>();
+                    String where = toWhere(shape.getValue(), params);
+                    String sql = "SELECT * FROM player" + where
+                            + " ORDER BY " + order.getFieldName() + (order == PlayerOrder.ID ? "" : ", id") + " LIMIT 3";
+
+                    String plan = mysql ? explainMySql(connection, sql, params) : explainH2(connection, sql, params);
+                    boolean scan = plan.startsWith("SCAN");
+                    if (scan) {
+                        scans++;
+                    }
+                    System.out.printf("%-6s %-40s ORDER BY %-10s %s%n",
+                            scan ? "SCAN" : "INDEX", shape.getKey(), order, plan.replaceFirst("^(SCAN|INDEX) ?", ""));
+                }
+            }
+        }
+        System.out.printf("%d of the checked shapes fall back to a scan%n", scans);
+    }
+
+    private static Map<String, PlayerFilter> createShapes() {
+        Map<String, PlayerFilter> shapes = new LinkedHashMap<>();
+        shapes.put("(none)", new PlayerFilter());
+
+        String[] dimensions = {"name", "title", "banned", "birthday", "race", "profession", "experience", "level"};
+        for (int i = 0; i < dimensions.length; i++) {
+            shapes.put(dimensions[i], createFilter(dimensions[i]));
+            for (int j = i + 1; j < dimensions.length; j++) {
+                shapes.put(dimensions[i] + "+" + dimensions[j], createFilter(dimensions[i], dimensions[j]));
+            }
+        }
+        for (FilterShape filterShape : FilterShape.values()) {
+            if (filterShape != FilterShape.NONE) {
+                shapes.put("GetAllTest:" + filterShape, filterShape.createFilter());
+            }
+        }
+        return shapes;
+    }
+
+    // Без фильтра проверяются все варианты сортировки, с фильтром - сортировка по умолчанию
+    private static PlayerOrder[] getOrders(String shape) {
+        return "(none)".equals(shape) ? PlayerOrder.values() : new PlayerOrder[]{PlayerOrder.ID};
+    }
+
+    private static PlayerFilter createFilter(String... dimensions) {
+        PlayerFilter filter = new PlayerFilter();
+        for (String dimension : dimensions) {
+            switch (dimension) {
+                case "name":
+                    filter.setName("ра");
+                    break;
+                case "title":
+                    filter.setTitle("ой");
+                    break;
+                case "banned":
+                    filter.setBanned(true);
+                    break;
+                case "birthday":
+                    filter.setBirthdayAfter(1104530400000L);
+                    filter.setBirthdayBefore(1136066400000L);
+                    break;
+                case "race":
+                    filter.setRace(Race.ELF);
+                    break;
+                case "profession":
+                    filter.setProfession(Profession.SORCERER);
+                    break;
+                case "experience":
+                    filter.setExperienceAfter(50000);
+                    filter.setExperienceBefore(60000);
+                    break;
+                case "level":
+                    filter.setLevelAfter(10);
+                    filter.setLevelBefore(12);
+                    break;
+                default:
+                    throw new IllegalArgumentException(dimension);
+            }
+        }
+        return filter;
+    }
+
+    private static String toWhere(PlayerFilter filter, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getName() != null) {
+            conditions.add("LOWER(name) LIKE ? ESCAPE '!'");
+            params.add("%" + filter.getName().toLowerCase() + "%");
+        }
+        if (filter.getTitle() != null) {
+            conditions.add("LOWER(title) LIKE ? ESCAPE '!'");
+            params.add("%" + filter.getTitle().toLowerCase() + "%");
+        }
+        if (filter.isBanned() != null) {
+            conditions.add("banned = ?");
+            params.add(filter.isBanned());
+        }
+        if (filter.getBirthdayAfter() != null) {
+            conditions.add("birthday >= ?");
+            params.add(toDate(filter.getBirthdayAfter()));
+        }
+        if (filter.getBirthdayBefore() != null) {
+            conditions.add("birthday <= ?");
+            params.add(toDate(filter.getBirthdayBefore()));
+        }
+        if (filter.getRace() != null) {
+            conditions.add("race = ?");
+            params.add(filter.getRace().name());
+        }
+        if (filter.getProfession() != null) {
+            conditions.add("profession = ?");
+            params.add(filter.getProfession().name());
+        }
+        if (filter.getExperienceAfter() != null) {
+            conditions.add("experience >= ?");
+            params.add(filter.getExperienceAfter());
+        }
+        if (filter.getExperienceBefore() != null) {
+            conditions.add("experience <= ?");
+            params.add(filter.getExperienceBefore());
+        }
+        if (filter.getLevelAfter() != null) {
+            conditions.add("level >= ?");
+            params.add(filter.getLevelAfter());
+        }
+        if (filter.getLevelBefore() != null) {
+            conditions.add("level <= ?");
+            params.add(filter.getLevelBefore());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static Date toDate(long millis) {
+        return Date.valueOf(LocalDate.from(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault())));
+    }
+
+    /**
+     * H2 пишет выбранный индекс комментарием: {@code /* PUBLIC.PLAYER.tableScan * /} - полный просмотр,
+     * {@code /* PUBLIC.IDX_...: RACE = ?1 * /} - поиск по индексу, индекс без условия - полный обход индекса.
+     */
+    private static String explainH2(Connection connection, String sql, List<Object> params) throws SQLException {
+        String plan = String.join(" ", explain(connection, sql, params, 1));
+        Matcher matcher = H2_INDEX.matcher(plan);
+        if (!matcher.find() || plan.contains("tableScan")) {
+            return "SCAN table";
+        }
+        String index = matcher.group(1);
+        if (matcher.group(2) == null) {
+            // Индекс без условия годится только для отдачи строк в нужном порядке без фильтра
+            boolean sorted = plan.contains("index sorted");
+            return (sorted && !sql.contains(" WHERE ") ? "INDEX " : "SCAN ") + "full " + index + (sorted ? " (index sorted)" : "");
+        }
+        return "INDEX " + index + matcher.group(2).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * MySQL: type=ALL - полный просмотр таблицы, type=index - полный обход индекса,
+     * range/ref/eq_ref/const - поиск по индексу.
+     */
+    private static String explainMySql(Connection connection, String sql, List<Object> params) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, "EXPLAIN " + sql, params);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            String type = resultSet.getString("type");
+            String key = resultSet.getString("key");
+            String extra = resultSet.getString("Extra");
+            boolean scan = "ALL".equals(type) || ("index".equals(type) && sql.contains(" WHERE "));
+            return (scan ? "SCAN " : "INDEX ") + "type=" + type + " key=" + key + (extra == null ? "" : " (" + extra + ")");
+        }
+    }
+
+    private static List<String> explain(Connection connection, String sql, List<Object> params, int column) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (PreparedStatement statement = prepare(connection, "EXPLAIN " + sql, params);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows.add(resultSet.getString(column));
+            }
+        }
+        return rows;
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, List<Object> params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+        return statement;
+    }
+}
@@ -0,0 +1,119 @@
+package com.game.benchmark;
+
+import com.game.config.AppConfig;
+import com.game.controller.Paginator;
+import com.game.controller.PlayerFilter;
+import com.game.controller.PlayerOrder;
+import com.game.dto.PlayerDto;
+import com.game.entity.PlayerEntity;
+import com.game.service.PlayerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конвейер GET /rest/players и GET /rest/players/count: фильтр, сортировка и страница выполняются в БД
+ * (встроенная H2 профиля dev), затем строки отображаются в PlayerDto, либо, при engine=columnar,
+ * в колоночном хранилище в памяти. Кэши Hibernate выключены, чтобы измерялись сами запросы.
+ * С -prof gc видно, сколько байт выделяет один запрос (gc.alloc.rate.norm): у columnar это
+ * план фильтра, буфер номеров строк и страница PlayerDto, но ничего на каждую строку таблицы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PlayerListBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rosterSize;
+
+    @Param
+    private FilterShape shape;
+
+    @Param({"ID"})
+    private PlayerOrder order;
+
+    @Param({"database", "columnar"})
+    private String engine;
+
+    private AnnotationConfigWebApplicationContext context;
+    private PlayerService playerService;
+    private PlayerFilter filter;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("hibernate.cache.use_second_level_cache", "false");
+        System.setProperty("hibernate.cache.use_query_cache", "false");
+        System.setProperty("players.query.engine", engine);
+
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.getEnvironment().setActiveProfiles("dev");
+        context.register(AppConfig.class);
+        context.refresh();
+
+        insertRoster(context.getBean(DataSource.class), SyntheticRoster.generate(rosterSize));
+
+        playerService = context.getBean(PlayerService.class);
+        // Колоночное хранилище загружается первым запросом, он не должен попасть в замер
+        playerService.getPlayersCount(new PlayerFilter());
+        filter = shape.createFilter();
+        pageable = new Paginator().getPageable(shape.getPageNumber(), shape.getPageSize(), order);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PlayerDto> list() {
+        return playerService.getPlayers(filter, pageable);
+    }
+
+    @Benchmark
+    public long count() {
+        return playerService.getPlayersCount(filter);
+    }
+
+    static void insertRoster(DataSource dataSource, List<PlayerEntity> roster) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM player");
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO player(id, name, title, race, profession, birthday, banned, experience, level, untilNextLevel) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                roster, 10_000, (statement, player) -> {
+                    statement.setLong(1, player.getId());
+                    statement.setString(2, player.getName());
+                    statement.setString(3, player.getTitle());
+                    statement.setString(4, player.getRace().name());
+                    statement.setString(5, player.getProfession().name());
+                    statement.setDate(6, player.getBirthday());
+                    statement.setBoolean(7, player.isBanned());
+                    statement.setInt(8, player.getExperience());
+                    statement.setInt(9, player.getLevel());
+                    statement.setInt(10, player.getUntilNextLevel());
+                });
+    }
+}
@@ -0,0 +1,48 @@
+package com.game.benchmark;
+
+import com.game.dto.PlayerDto;
+import com.game.entity.PlayerEntity;
+import com.game.mappers.PlayerMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отображение сущностей в PlayerDto - часть конвейера, которая осталась в JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PlayerMapperBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rosterSize;
+
+    private final PlayerMapper playerMapper = new PlayerMapper();
+    private List<PlayerEntity> roster;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        roster = SyntheticRoster.generate(rosterSize);
+    }
+
+    @Benchmark
+    public List<PlayerDto> mapEntityListToDtoList() {
+        return playerMapper.mapEntityListToDtoList(roster);
+    }
+}
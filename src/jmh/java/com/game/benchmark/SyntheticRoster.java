@@ -0,0 +1,62 @@
+package com.game.benchmark;
+
+import com.game.entity.PlayerEntity;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Детерминированный набор игроков с распределением значений как в test.sql:
+ * кириллические имена и титулы, дни рождения 2000-2010, опыт до 200 000, ~10% забаненных.
+ */
+public final class SyntheticRoster {
+
+    private static final String[] SYLLABLES = {
+            "ра", "ни", "ус", "эл", "ан", "ор", "ди", "ой", "ка", "ми", "тр", "ел", "Ар", "Бэ", "Го", "Жэ"
+    };
+    private static final long FIRST_BIRTHDAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final long LAST_BIRTHDAY = LocalDate.of(2010, 12, 31).toEpochDay();
+
+    private SyntheticRoster() {
+    }
+
+    public static List<PlayerEntity> generate(int size) {
+        Random random = new Random(42);
+        Race[] races = Race.values();
+        Profession[] professions = Profession.values();
+
+        List<PlayerEntity> players = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            PlayerEntity player = new PlayerEntity();
+            player.setId((long) i);
+            player.setName(word(random, 3 + random.nextInt(3)));
+            player.setTitle(word(random, 2 + random.nextInt(4)) + " " + word(random, 2 + random.nextInt(4)));
+            player.setRace(races[random.nextInt(races.length)]);
+            player.setProfession(professions[random.nextInt(professions.length)]);
+            long birthday = FIRST_BIRTHDAY + (long) (random.nextDouble() * (LAST_BIRTHDAY - FIRST_BIRTHDAY));
+            player.setBirthday(Date.valueOf(LocalDate.ofEpochDay(birthday)));
+            player.setBanned(random.nextInt(10) == 0);
+
+            int experience = random.nextInt(200_000);
+            int level = (((int) Math.sqrt(2500 + 200 * experience)) - 50) / 100;
+            player.setExperience(experience);
+            player.setLevel(level);
+            player.setUntilNextLevel(50 * (level + 1) * (level + 2) - experience);
+            players.add(player);
+        }
+        return players;
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+}
@@ -1,13 +1,20 @@
 package com.game.config;
 
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
@@ -16,9 +23,12 @@ import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.cache.Caching;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.net.URI;
 import java.util.Properties;
+import java.util.UUID;
 
 import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
 
@@ -26,9 +36,17 @@ import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.
 @EnableTransactionManagement
 @ComponentScan("com.game")
 @EnableJpaRepositories(basePackages = "com.game.repository")
+@PropertySource({"classpath:database.properties", "classpath:cache.properties", "classpath:async.properties"})
 public class AppConfig {
 
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private ConnectionPoolStatistics connectionPoolStatistics;
+
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
@@ -42,16 +60,28 @@ public class AppConfig {
     }
 
     @Profile("prod")
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/rpg?serverTimezone=UTC&characterEncoding=UTF-8");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName(env.getRequiredProperty("db.driver"));
+        config.setJdbcUrl(env.getRequiredProperty("db.url"));
+        config.setUsername(env.getRequiredProperty("db.username"));
+        config.setPassword(env.getRequiredProperty("db.password"));
+
+        config.setPoolName(env.getProperty("db.pool.name", "rpg-pool"));
+        config.setMaximumPoolSize(env.getProperty("db.pool.maximumPoolSize", Integer.class, 10));
+        config.setMinimumIdle(env.getProperty("db.pool.minimumIdle", Integer.class, 2));
+        config.setConnectionTimeout(env.getProperty("db.pool.connectionTimeout", Long.class, 30_000L));
+        config.setIdleTimeout(env.getProperty("db.pool.idleTimeout", Long.class, 600_000L));
+        config.setMaxLifetime(env.getProperty("db.pool.maxLifetime", Long.class, 1_800_000L));
+        config.setLeakDetectionThreshold(env.getProperty("db.pool.leakDetectionThreshold", Long.class, 0L));
+        // Статистика: HikariPoolMXBean в JMX и GET /rest/stats/pool
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(connectionPoolStatistics);
+        return new HikariDataSource(config);
     }
 
+    // Схему создает Flyway, как и в prod, а данные каждый тест загружает из test.sql сам
     @Profile("dev")
     @Bean(name = "dataSource")
     public DataSource dataSourceForTests() {
@@ -59,12 +89,23 @@ public class AppConfig {
         return new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
                 .setType(H2)
-                .setScriptEncoding("UTF-8")
-                .ignoreFailedDrops(true)
-                .addScript("test.sql")
                 .build();
     }
 
+    /**
+     * Миграции схемы из db/migration. Базы, созданные init.sql без истории миграций,
+     * принимаются за версию 0, и к ним применяются все версии начиная с V1.
+     */
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource())
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
@@ -81,6 +122,21 @@ public class AppConfig {
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.jdbc.batch_size", env.getProperty("hibernate.jdbc.batch_size", "50"));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        // Кэш второго уровня и кэш запросов, регионы и их размеры описаны в application.conf
+        properties.setProperty("hibernate.cache.use_second_level_cache", env.getProperty("hibernate.cache.use_second_level_cache", "true"));
+        properties.setProperty("hibernate.cache.use_query_cache", env.getProperty("hibernate.cache.use_query_cache", "true"));
+        properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+        properties.setProperty("hibernate.javax.cache.provider", CaffeineCachingProvider.class.getName());
+        properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        // Hibernate закрывает CacheManager вместе с SessionFactory, а провайдер выдает один менеджер на URI.
+        // Свой URI у каждого контекста, чтобы закрытие одного контекста не закрывало регионы другого
+        properties.put("hibernate.javax.cache.cache_manager", Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("com.game:" + UUID.randomUUID()), getClass().getClassLoader()));
+        properties.setProperty("hibernate.generate_statistics", "true");
         return properties;
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.game.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Пул для асинхронной обработки запросов к /rest/players, тип задается players.executor.type.
+ * <p>
+ * platform - ограниченный пул потоков платформы. Очередь конечна, а переполнение отклоняется
+ * {@link java.util.concurrent.RejectedExecutionException} (в ответе - 503), чтобы при всплеске нагрузки
+ * запросы не копились в памяти без предела.
+ * <p>
+ * virtual - виртуальный поток на каждый запрос (Java 21+, сборка с профилем jdk21). Одновременно выполняется
+ * не больше db.pool.maximumPoolSize запросов, еще до players.executor.queueCapacity ждут в очереди, сверх
+ * этого запрос, как и в режиме platform, сразу отклоняется RejectedExecutionException (503).
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Autowired
+    private Environment env;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService playersExecutor(MeterRegistry meterRegistry) {
+        String type = env.getProperty("players.executor.type", "platform");
+        ExecutorService executor;
+        if ("virtual".equals(type)) {
+            executor = createVirtualThreadExecutor();
+        } else if ("platform".equals(type)) {
+            executor = createPlatformThreadExecutor();
+        } else {
+            throw new IllegalStateException("Unknown players.executor.type: " + type);
+        }
+
+        // executor_queued_tasks, executor_active_threads и время выполнения задач на GET /metrics
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "players");
+    }
+
+    private ExecutorService createPlatformThreadExecutor() {
+        int corePoolSize = env.getProperty("players.executor.corePoolSize", Integer.class, 10);
+        int maxPoolSize = env.getProperty("players.executor.maxPoolSize", Integer.class, corePoolSize);
+        long keepAliveSeconds = env.getProperty("players.executor.keepAliveSeconds", Long.class, 60L);
+        int queueCapacity = env.getProperty("players.executor.queueCapacity", Integer.class, 100);
+
+        BlockingQueue<Runnable> queue = (queueCapacity > 0)
+                ? new ArrayBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+        return new ThreadPoolExecutor(
+                corePoolSize, maxPoolSize, keepAliveSeconds, TimeUnit.SECONDS, queue,
+                new CustomizableThreadFactory("players-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() вызывается через reflection,
+    // чтобы основная сборка оставалась совместимой с java.version=1.8
+    private ExecutorService createVirtualThreadExecutor() {
+        int maximumPoolSize = env.getProperty("db.pool.maximumPoolSize", Integer.class, 10);
+        int queueCapacity = env.getProperty("players.executor.queueCapacity", Integer.class, 100);
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new PermitLimitedExecutorService(executor, maximumPoolSize, queueCapacity);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("players.executor.type=virtual requires Java 21 or newer", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.game.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Собирает статистику пула соединений: сколько соединений занято и сколько потоки ждут
+ * получения соединения. Пока пул не создан (например, во встроенной H2), отдает нули.
+ */
+@Component
+public class ConnectionPoolStatistics implements MetricsTrackerFactory {
+
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final LongAccumulator maxAcquireWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquiredCount.increment();
+                acquireWaitNanos.add(elapsedAcquiredNanos);
+                maxAcquireWaitNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+            }
+        };
+    }
+
+    public Map<String, Number> getSnapshot() {
+        PoolStats stats = poolStats;
+        long acquired = acquiredCount.sum();
+
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("activeConnections", stats == null ? 0 : stats.getActiveConnections());
+        snapshot.put("idleConnections", stats == null ? 0 : stats.getIdleConnections());
+        snapshot.put("totalConnections", stats == null ? 0 : stats.getTotalConnections());
+        snapshot.put("maxConnections", stats == null ? 0 : stats.getMaxConnections());
+        snapshot.put("pendingThreads", stats == null ? 0 : stats.getPendingThreads());
+        snapshot.put("acquiredConnections", acquired);
+        snapshot.put("acquireWaitAvgMicros", acquired == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireWaitNanos.sum() / acquired));
+        snapshot.put("acquireWaitMaxMicros", TimeUnit.NANOSECONDS.toMicros(maxAcquireWaitNanos.get()));
+        snapshot.put("usageAvgMillis", acquired == 0 ? 0 : usageMillis.sum() / acquired);
+        snapshot.put("connectionTimeouts", timeoutCount.sum());
+        return snapshot;
+    }
+}
@@ -0,0 +1,49 @@
+package com.game.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Статистика кэша второго уровня и кэша запросов Hibernate по регионам из application.conf.
+ */
+@Component
+public class HibernateStatistics {
+
+    private static final String PLAYER_REGION = "player";
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public HibernateStatistics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public Map<String, Object> getSnapshot() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        snapshot.put("entityLoadCount", statistics.getEntityLoadCount());
+        snapshot.put(PLAYER_REGION, getRegionSnapshot(statistics.getDomainDataRegionStatistics(PLAYER_REGION)));
+        snapshot.put(QUERY_RESULTS_REGION, getRegionSnapshot(statistics.getQueryRegionStatistics(QUERY_RESULTS_REGION)));
+        return snapshot;
+    }
+
+    private Map<String, Number> getRegionSnapshot(CacheRegionStatistics regionStatistics) {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        if (regionStatistics != null) {
+            snapshot.put("hitCount", regionStatistics.getHitCount());
+            snapshot.put("missCount", regionStatistics.getMissCount());
+            snapshot.put("putCount", regionStatistics.getPutCount());
+            snapshot.put("elementCountInMemory", regionStatistics.getElementCountInMemory());
+        }
+        return snapshot;
+    }
+}
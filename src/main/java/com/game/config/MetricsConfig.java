@@ -0,0 +1,42 @@
+package com.game.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.binder.system.UptimeMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Реестр метрик Micrometer, отдаваемый в текстовом формате Prometheus на GET /metrics.
+ * Кроме метрик запросов и этапов выборки игроков в него заведены метрики JVM и пула соединений.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Autowired
+    private ConnectionPoolStatistics connectionPoolStatistics;
+
+    @Bean(destroyMethod = "close")
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmGcMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        new UptimeMetrics().bindTo(registry);
+
+        for (String name : connectionPoolStatistics.getSnapshot().keySet()) {
+            Gauge.builder("db.pool." + name, connectionPoolStatistics,
+                    statistics -> statistics.getSnapshot().get(name).doubleValue())
+                    .register(registry);
+        }
+        return registry;
+    }
+}
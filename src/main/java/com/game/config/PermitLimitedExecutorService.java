@@ -0,0 +1,185 @@
+package com.game.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Исполнитель, который одновременно выполняет не больше {@code permits} задач. Для виртуальных потоков
+ * число разрешений равно размеру пула соединений, так что поток никогда не ждет соединение внутри
+ * synchronized в коде драйвера или Hibernate, закрепив поток-носитель.
+ * <p>
+ * Задачи без разрешения ждут в очереди этого исполнителя, а не в уже запущенных виртуальных потоках:
+ * на JDK 21.0.1 с одним носителем планировщик подолгу не брал новые потоки из очередей других клиентских
+ * потоков, пока у носителя была своя работа, и запрос мог не начаться дольше players.async.timeout.
+ * Поток задачи запускается, только когда для нее есть разрешение; завершившаяся задача передает
+ * разрешение первой ожидающей. Ожидающих не больше {@code queueCapacity}, как и в очереди пула потоков
+ * платформы: лишняя задача отклоняется в {@link #execute} {@link RejectedExecutionException}.
+ * Задачу запроса, ответ на который уже ушел по таймауту, пропускает сам контроллер.
+ * <p>
+ * После {@link #shutdown()} новые задачи отклоняются, а ожидающие еще выполняются: исполнитель потоков
+ * останавливается, когда разрешения вернут все задачи.
+ */
+class PermitLimitedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final int permits;
+    private final int queueCapacity;
+    // ReentrantLock, а не synchronized: ожидание монитора закрепляет виртуальный поток на носителе
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int running;
+    private boolean shutdown;
+
+    PermitLimitedExecutorService(ExecutorService delegate, int permits, int queueCapacity) {
+        this.delegate = delegate;
+        this.permits = permits;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            if (running == permits) {
+                if (waiting.size() >= queueCapacity) {
+                    throw new RejectedExecutionException("Too many tasks are running or waiting for a permit");
+                }
+                waiting.add(command);
+                return;
+            }
+            running++;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            delegate.execute(withPermit(command));
+        } catch (RejectedExecutionException e) {
+            startNext();
+            throw e;
+        }
+    }
+
+    private Runnable withPermit(Runnable command) {
+        return () -> {
+            try {
+                command.run();
+            } finally {
+                startNext();
+            }
+        };
+    }
+
+    // Разрешение переходит к первой ожидающей задаче, а если таких нет - освобождается
+    private void startNext() {
+        while (true) {
+            Runnable next;
+            lock.lock();
+            try {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    if (isDrained()) {
+                        drained.signalAll();
+                        delegate.shutdown();
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                delegate.execute(withPermit(next));
+                return;
+            } catch (RejectedExecutionException e) {
+                // Исполнитель остановлен: ожидающая задача не выполнится, как и при shutdownNow
+            }
+        }
+    }
+
+    // Остановлен, и ни одна задача не выполняется и не ждет разрешения. Вызывается под lock
+    private boolean isDrained() {
+        return shutdown && running == 0 && waiting.isEmpty();
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            if (isDrained()) {
+                drained.signalAll();
+                delegate.shutdown();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks;
+        lock.lock();
+        try {
+            shutdown = true;
+            tasks = new ArrayList<>(waiting);
+            waiting.clear();
+            if (isDrained()) {
+                drained.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        tasks.addAll(delegate.shutdownNow());
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return isDrained() && delegate.isTerminated();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!isDrained()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                drained.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return delegate.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+}
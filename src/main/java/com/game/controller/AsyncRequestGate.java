@@ -0,0 +1,76 @@
+package com.game.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+/**
+ * Согласует истечение players.async.timeout с задачей асинхронного запроса к /rest/players.
+ * <p>
+ * Задача, которая не успела начаться до ответа 503, не выполняется. Запись перед фиксацией транзакции
+ * вызывает {@link #beforeCommit()}: если ответ 503 уже ушел, транзакция откатывается. Если же таймаут
+ * наступил во время фиксации, ответ дожидается ее результата, а не сообщает об ошибке.
+ */
+class AsyncRequestGate implements DeferredResultProcessingInterceptor {
+
+  private static final int RUNNING = 0;
+  private static final int COMMITTING = 1;
+  private static final int TIMED_OUT = 2;
+
+  private final AtomicInteger state = new AtomicInteger(RUNNING);
+  // Результат задачи, который ждет таймаут, наступивший во время фиксации
+  private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+  /**
+   * Выполняет задачу запроса в потоке пула.
+   *
+   * @throws AsyncRequestTimeoutException если клиент уже получил 503 и задачу выполнять не нужно
+   */
+  <T> T run(Supplier<T> task) {
+    if (state.get() == TIMED_OUT) {
+      throw new AsyncRequestTimeoutException();
+    }
+    try {
+      T result = task.get();
+      outcome.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      outcome.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * @throws AsyncRequestTimeoutException если клиент уже получил 503: транзакция должна откатиться
+   */
+  void beforeCommit() {
+    if (!state.compareAndSet(RUNNING, COMMITTING)) {
+      throw new AsyncRequestTimeoutException();
+    }
+  }
+
+  @Override
+  public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+    if (state.compareAndSet(RUNNING, TIMED_OUT)) {
+      // Дальше ответ 503 от обработчика таймаута по умолчанию
+      return true;
+    }
+    // Транзакция уже фиксируется: клиент получит ее результат
+    try {
+      setResult(deferredResult, outcome.join());
+    } catch (CompletionException e) {
+      deferredResult.setErrorResult(e.getCause());
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void setResult(DeferredResult<T> deferredResult, Object result) {
+    deferredResult.setResult((T) result);
+  }
+}
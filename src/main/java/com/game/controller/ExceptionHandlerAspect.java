@@ -1,7 +1,16 @@
 package com.game.controller;
 
 import com.game.service.exceptions.PlayerNotFoundException;
+import com.game.service.exceptions.PlayerVersionMismatchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -10,6 +19,17 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ControllerAdvice
 public class ExceptionHandlerAspect {
 
+  public static final String REJECTED_METRIC_NAME = "players.executor.rejected";
+
+  private static final Logger log = LoggerFactory.getLogger(ExceptionHandlerAspect.class);
+
+  private final Counter rejectedCounter;
+
+  @Autowired
+  public ExceptionHandlerAspect(MeterRegistry meterRegistry) {
+    this.rejectedCounter = meterRegistry.counter(REJECTED_METRIC_NAME);
+  }
+
   @ResponseBody
   @ExceptionHandler(IllegalArgumentException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -24,4 +44,37 @@ public class ExceptionHandlerAspect {
     System.out.println(e.getMessage());
   }
 
+  // Версия игрока не совпала с If-Match
+  @ResponseBody
+  @ExceptionHandler(PlayerVersionMismatchException.class)
+  @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+  void preconditionFailedHandler(PlayerVersionMismatchException e) {
+    log.warn("Precondition failed: {}", e.getMessage());
+  }
+
+  // Строку изменили в другой транзакции после того, как эта ее прочитала (@Version)
+  @ResponseBody
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  void conflictHandler(OptimisticLockingFailureException e) {
+    log.warn("Concurrent update conflict: {}", e.getMessage());
+  }
+
+  // Пул обработки запросов и его очередь заполнены
+  @ResponseBody
+  @ExceptionHandler(RejectedExecutionException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  void executorUnavailableHandler(RejectedExecutionException e) {
+    rejectedCounter.increment();
+    log.warn("Request rejected by the executor: {}", e.getMessage());
+  }
+
+  // Не дождались свободного соединения из пула за db.pool.connectionTimeout
+  @ResponseBody
+  @ExceptionHandler(CannotCreateTransactionException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  void connectionPoolUnavailableHandler(CannotCreateTransactionException e) {
+    log.warn("No database connection available: {}", e.getMessage());
+  }
+
 }
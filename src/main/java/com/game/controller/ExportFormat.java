@@ -0,0 +1,31 @@
+package com.game.controller;
+
+public enum ExportFormat {
+  CSV("text/csv", "csv"),
+  NDJSON("application/x-ndjson", "ndjson");
+
+  private final String contentType;
+  private final String fileExtension;
+
+  ExportFormat(String contentType, String fileExtension) {
+    this.contentType = contentType;
+    this.fileExtension = fileExtension;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public String getFileExtension() {
+    return fileExtension;
+  }
+
+  public static ExportFormat of(String format) {
+    for (ExportFormat exportFormat : values()) {
+      if (exportFormat.fileExtension.equalsIgnoreCase(format)) {
+        return exportFormat;
+      }
+    }
+    throw new IllegalArgumentException("Unknown export format: " + format);
+  }
+}
@@ -0,0 +1,49 @@
+package com.game.controller;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+
+@Controller
+public class MetricsController {
+
+  private final PrometheusMeterRegistry meterRegistry;
+
+  @Autowired
+  public MetricsController(PrometheusMeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * REST API - GET /metrics
+   * <p>
+   * Отдается только запросам с локального адреса: метрики не предназначены для внешних клиентов.
+   *
+   * @return metrics in Prometheus text format
+   */
+  @GetMapping(value = "/metrics")
+  public void scrape(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (!isLocal(request.getRemoteAddr())) {
+      response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    // Пишем напрямую: в WebConfig зарегистрирован только JSON-конвертер
+    response.setContentType(TextFormat.CONTENT_TYPE_004);
+    meterRegistry.scrape(response.getWriter());
+  }
+
+  private boolean isLocal(String remoteAddr) {
+    try {
+      return InetAddress.getByName(remoteAddr).isLoopbackAddress();
+    } catch (UnknownHostException e) {
+      return false;
+    }
+  }
+}
@@ -1,29 +1,53 @@
 package com.game.controller;
 
-import com.game.dto.PlayerDto;
-import java.util.ArrayList;
-import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
 @Component
 public class Paginator {
 
-  public List<PlayerDto> getPageData(List<PlayerDto> players, final Integer pageNumberValue, final Integer pageSizeValue) {
-    List<PlayerDto> result = new ArrayList<>();
+  /**
+   * Страница размером 0 и меньше пуста, как и при постраничной выдаче списка в памяти. PageRequest такой
+   * размер не принимает, поэтому запрос с ней отвечает пустым списком, не обращаясь к getPageable.
+   */
+  public boolean isEmptyPage(final Integer pageSizeValue) {
+    return pageSizeValue != null && pageSizeValue <= 0;
+  }
 
+  /**
+   * @throws IllegalArgumentException если номер страницы отрицательный или ее первая строка дальше
+   *                                  Integer.MAX_VALUE: такое смещение не передать в setFirstResult
+   */
+  public Pageable getPageable(final Integer pageNumberValue, final Integer pageSizeValue, final PlayerOrder playerOrder) {
     int pageNumber = (pageNumberValue == null)? 0 : pageNumberValue;
     int pageSize = (pageSizeValue == null)? 3 : pageSizeValue;
-    int startIndex = pageNumber * pageSize;
-
-    for (int i = 0; i < pageSize; i++) {
-      if ((startIndex + i) >= players.size()) {
-        break;
-      }
-      PlayerDto player = players.get(startIndex + i);
-      result.add(player);
+
+    if (pageNumber < 0) {
+      throw new IllegalArgumentException("Page number can't be negative");
+    }
+    if ((long) pageNumber * pageSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Page offset is too large");
+    }
+    return PageRequest.of(pageNumber, pageSize, getSort(playerOrder));
+  }
+
+  // Потоковая выдача: без pageSize отдаются все подходящие строки
+  public Pageable getStreamPageable(final Integer pageNumberValue, final Integer pageSizeValue, final PlayerOrder playerOrder) {
+    if (pageSizeValue == null) {
+      return PageRequest.of(0, Integer.MAX_VALUE, getSort(playerOrder));
     }
+    return getPageable(pageNumberValue, pageSizeValue, playerOrder);
+  }
 
-    return result;
+  // При равенстве основного ключа порядок определяется ID, как и при прежней стабильной сортировке
+  private Sort getSort(PlayerOrder playerOrder) {
+    Sort byId = Sort.by(PlayerOrder.ID.getFieldName());
+    if (playerOrder == PlayerOrder.ID) {
+      return byId;
+    }
+    return Sort.by(playerOrder.getFieldName()).and(byId);
   }
 
 }
@@ -0,0 +1,99 @@
+package com.game.controller;
+
+import com.game.dto.PlayerDto;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция последней отданной записи для keyset-пагинации: пара (ключ сортировки, ID).
+ * Клиенту отдается как непрозрачный токен, следующая страница выбирается условием
+ * {@code (key > lastKey) OR (key = lastKey AND id > lastId)} вместо OFFSET.
+ */
+public class PlayerCursor {
+
+  public static final String PARAM = "cursor";
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private static final String SEPARATOR = "|";
+
+  private final PlayerOrder order;
+  private final long lastId;
+  private final String lastKey;
+
+  private PlayerCursor(PlayerOrder order, long lastId, String lastKey) {
+    this.order = order;
+    this.lastId = lastId;
+    this.lastKey = lastKey;
+  }
+
+  public static PlayerCursor of(PlayerOrder order, PlayerDto lastPlayer) {
+    return new PlayerCursor(order, lastPlayer.getId(), getSortKey(order, lastPlayer));
+  }
+
+  public static PlayerCursor decode(String token, PlayerOrder expectedOrder) {
+    String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    String[] parts = decoded.split("\\" + SEPARATOR, 3);
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Bad cursor");
+    }
+
+    PlayerOrder order = PlayerOrder.valueOf(parts[0]);
+    if (order != expectedOrder) {
+      throw new IllegalArgumentException("Cursor was issued for another order");
+    }
+    PlayerCursor cursor = new PlayerCursor(order, Long.parseLong(parts[1]), parts[2]);
+    // Проверяем формат ключа сразу, а не при построении запроса
+    switch (order) {
+      case BIRTHDAY:
+        cursor.getLastKeyAsLong();
+        break;
+      case EXPERIENCE:
+      case LEVEL:
+        cursor.getLastKeyAsInteger();
+        break;
+      default:
+        break;
+    }
+    return cursor;
+  }
+
+  public String encode() {
+    String raw = order.name() + SEPARATOR + lastId + SEPARATOR + lastKey;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public PlayerOrder getOrder() {
+    return order;
+  }
+
+  public long getLastId() {
+    return lastId;
+  }
+
+  public String getLastKey() {
+    return lastKey;
+  }
+
+  public long getLastKeyAsLong() {
+    return Long.parseLong(lastKey);
+  }
+
+  public int getLastKeyAsInteger() {
+    return Integer.parseInt(lastKey);
+  }
+
+  private static String getSortKey(PlayerOrder order, PlayerDto player) {
+    switch (order) {
+      case NAME:
+        return player.getName();
+      case BIRTHDAY:
+        return String.valueOf(player.getBirthday());
+      case EXPERIENCE:
+        return String.valueOf(player.getExperience());
+      case LEVEL:
+        return String.valueOf(player.getLevel());
+      default:
+        return "";
+    }
+  }
+}
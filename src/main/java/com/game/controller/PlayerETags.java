@@ -0,0 +1,97 @@
+package com.game.controller;
+
+import com.game.dto.PlayerDto;
+import com.game.service.PlayerChangeCounter;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Строгие ETag ресурсов игроков. Игрок помечается своим ID и версией строки, списки и
+ * количество - счетчиком изменений таблицы, поэтому их ETag известен до обращения к БД.
+ * ETag игрока из ответа можно вернуть в If-Match при его изменении.
+ */
+@Component
+public class PlayerETags {
+
+  private final PlayerChangeCounter changeCounter;
+
+  @Autowired
+  public PlayerETags(PlayerChangeCounter changeCounter) {
+    this.changeCounter = changeCounter;
+  }
+
+  public String forPlayer(PlayerDto player) {
+    return quote(player.getId() + "-" + player.getVersion());
+  }
+
+  // Читается до запроса к БД: если запись успеет зафиксироваться раньше запроса,
+  // клиент получит свежие данные со старым тегом и просто перечитает их в следующий раз
+  public String forTable() {
+    return quote(changeCounter.current());
+  }
+
+  /**
+   * Версии игрока, перечисленные в If-Match. If-Match сравнивается строгим сравнением, поэтому слабые теги
+   * и теги других игроков пропускаются: если подходящих не осталось, изменение будет отклонено.
+   *
+   * @return null, если условия нет или оно равно "*"
+   */
+  public static Set<Long> versionsOf(String ifMatch, long playerId) {
+    if (ifMatch == null) {
+      return null;
+    }
+    String prefix = "\"" + playerId + "-";
+    Set<Long> versions = new HashSet<>();
+    for (String tag : ifMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.equals("*")) {
+        return null;
+      }
+      if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+        try {
+          versions.add(Long.parseLong(tag.substring(prefix.length(), tag.length() - 1)));
+        } catch (NumberFormatException e) {
+          // чужой формат тега не совпадает ни с одной версией
+        }
+      }
+    }
+    return versions;
+  }
+
+  /**
+   * If-None-Match сравнивается слабым сравнением (RFC 7232): W/"x" совпадает с "x", а "*" - с любым тегом.
+   */
+  public static boolean matches(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals("*") || tag.equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // no-cache: браузер хранит ответ, но перед использованием каждый раз проверяет его по ETag
+  public static ResponseEntity.BodyBuilder ok(String eTag) {
+    return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag);
+  }
+
+  public static <T> ResponseEntity<T> notModified(String eTag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).eTag(eTag).build();
+  }
+
+  private static String quote(String value) {
+    return "\"" + value + "\"";
+  }
+}
@@ -0,0 +1,115 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.dto.PlayerDto;
+import com.game.service.PlayerService;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пишет выгрузку игроков в поток по мере чтения из БД курсором (см. {@link PlayerService#forEachPlayer}).
+ * В памяти одновременно находится не больше одной порции строк драйвера и буфер записи.
+ */
+@Component
+public class PlayerExporter {
+
+  private static final String CSV_HEADER =
+      "id,name,title,race,profession,birthday,banned,experience,level,untilNextLevel";
+
+  private final PlayerService playerService;
+  private final ObjectMapper objectMapper;
+
+  @Autowired
+  public PlayerExporter(PlayerService playerService, ObjectMapper objectMapper) {
+    this.playerService = playerService;
+    this.objectMapper = objectMapper;
+  }
+
+  public void export(ExportFormat format, PlayerFilter filter, Pageable pageable, OutputStream out) throws IOException {
+    switch (format) {
+      case CSV:
+        exportCsv(filter, pageable, out);
+        break;
+      case NDJSON:
+        exportNdjson(filter, pageable, out);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown export format: " + format);
+    }
+  }
+
+  private void exportCsv(PlayerFilter filter, Pageable pageable, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write(CSV_HEADER);
+    writer.write('\n');
+    playerService.forEachPlayer(filter, pageable, player -> {
+      try {
+        writeCsvRow(writer, player);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    writer.flush();
+  }
+
+  private void writeCsvRow(Writer writer, PlayerDto player) throws IOException {
+    writer.write(String.valueOf(player.getId()));
+    writer.write(',');
+    writer.write(escapeCsv(player.getName()));
+    writer.write(',');
+    writer.write(escapeCsv(player.getTitle()));
+    writer.write(',');
+    writer.write(toCsv(player.getRace()));
+    writer.write(',');
+    writer.write(toCsv(player.getProfession()));
+    writer.write(',');
+    writer.write(toCsv(player.getBirthday()));
+    writer.write(',');
+    writer.write(toCsv(player.isBanned()));
+    writer.write(',');
+    writer.write(toCsv(player.getExperience()));
+    writer.write(',');
+    writer.write(toCsv(player.getLevel()));
+    writer.write(',');
+    writer.write(toCsv(player.getUntilNextLevel()));
+    writer.write('\n');
+  }
+
+  private String toCsv(Object value) {
+    return (value == null) ? "" : value.toString();
+  }
+
+  // RFC 4180: поле с запятой, кавычкой или переводом строки берется в кавычки, кавычки удваиваются
+  private String escapeCsv(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  private void exportNdjson(PlayerFilter filter, Pageable pageable, OutputStream out) throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    generator.setRootValueSeparator(null);
+    playerService.forEachPlayer(filter, pageable, player -> {
+      try {
+        generator.writeObject(player);
+        generator.writeRaw('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    generator.flush();
+  }
+}
@@ -0,0 +1,32 @@
+package com.game.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Этапы выборки GET /rest/players для таймера players.list.stage с тегом stage. Колоночное хранилище
+ * выполняет фильтр, сортировку, выбор страницы и создание DTO по отдельности, а запрос к БД делает
+ * все это одним SQL-запросом с проекцией, поэтому для него этап один - db_fetch.
+ */
+public enum PlayerListStage {
+    FILTER("filter"),
+    SORT("sort"),
+    PAGINATE("paginate"),
+    MAPPING("mapping"),
+    DB_FETCH("db_fetch");
+
+    public static final String METRIC_NAME = "players.list.stage";
+
+    private final String tagValue;
+
+    PlayerListStage(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public Timer timer(MeterRegistry meterRegistry) {
+        return Timer.builder(METRIC_NAME)
+                .tag("stage", tagValue)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -1,130 +1,241 @@
 package com.game.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.dto.BatchResultDto;
 import com.game.dto.PlayerDto;
+import com.game.dto.PlayerFacetDto;
 import com.game.entity.Profession;
 import com.game.entity.Race;
 import com.game.service.PlayerService;
-import java.util.Comparator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 
 @Controller
 @RequestMapping(value = "/rest/players")
 public class PlayersController {
 
+  public static final String QUERY_METRIC_NAME = "players.list.query";
+
+  private static final int EXPORT_BUFFER_SIZE = 8192;
+
   private final PlayerService playerService;
   private final Paginator paginator;
+  private final ObjectMapper objectMapper;
+  private final PlayerExporter playerExporter;
+  private final Timer queryTimer;
+  private final ExecutorService playersExecutor;
+  private final PlayerETags eTags;
+  private final TransactionTemplate transactionTemplate;
 
   @Autowired
   public PlayersController(
       PlayerService playerService,
-      Paginator paginator) {
+      Paginator paginator,
+      ObjectMapper objectMapper,
+      PlayerExporter playerExporter,
+      MeterRegistry meterRegistry,
+      ExecutorService playersExecutor,
+      PlayerETags eTags,
+      PlatformTransactionManager transactionManager) {
     this.playerService = playerService;
+    this.playersExecutor = playersExecutor;
+    this.eTags = eTags;
     this.paginator = paginator;
+    this.objectMapper = objectMapper;
+    this.playerExporter = playerExporter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    // Весь запрос выборки при любом движке; его этапы отдельно считают таймеры PlayerListStage
+    this.queryTimer = Timer.builder(QUERY_METRIC_NAME)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Выполняет обработку запроса на пуле playersExecutor, освобождая поток контейнера на время работы с БД.
+   * Если пул и его очередь заняты, RejectedExecutionException выбрасывается сразу и превращается в 503.
+   * Задача, до которой очередь дошла уже после ответа 503 по players.async.timeout, не выполняется.
+   */
+  private <T> CompletableFuture<T> async(Supplier<T> supplier) {
+    AsyncRequestGate gate = registerGate();
+    return CompletableFuture.supplyAsync(() -> gate.run(supplier), playersExecutor);
+  }
+
+  /**
+   * Как {@link #async}, но для изменений: задача выполняется в одной транзакции, и она фиксируется,
+   * только если клиент еще ждет ответа. После ответа 503 по players.async.timeout изменения откатываются.
+   */
+  private <T> CompletableFuture<T> asyncWrite(Supplier<T> supplier) {
+    AsyncRequestGate gate = registerGate();
+    return CompletableFuture.supplyAsync(() -> gate.run(() -> transactionTemplate.execute(status -> {
+      T result = supplier.get();
+      gate.beforeCommit();
+      return result;
+    })), playersExecutor);
+  }
+
+  private AsyncRequestGate registerGate() {
+    AsyncRequestGate gate = new AsyncRequestGate();
+    HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+    WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(AsyncRequestGate.class, gate);
+    return gate;
   }
 
   /**
    * REST API - GET /rest/players
+   * <p>
+   * Если таблица не менялась с момента выдачи тега из If-None-Match, отвечает 304 без запроса к БД.
    *
    * @return list of players
    */
   @GetMapping
-  public ResponseEntity<List<PlayerDto>> getPlayers(
+  public CompletableFuture<ResponseEntity<List<PlayerDto>>> getPlayers(
       @RequestParam Map<String, String> queryParams,
       @RequestParam(name = "order", required = false) String order,
       @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
-      @RequestParam(name = "pageSize", required = false) Integer pageSize
+      @RequestParam(name = "pageSize", required = false) Integer pageSize,
+      @RequestParam(name = PlayerCursor.PARAM, required = false) String cursor,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
   ) {
+    String eTag = eTags.forTable();
+    if (PlayerETags.matches(ifNoneMatch, eTag)) {
+      return CompletableFuture.completedFuture(PlayerETags.notModified(eTag));
+    }
+    if (paginator.isEmptyPage(pageSize)) {
+      return CompletableFuture.completedFuture(PlayerETags.ok(eTag).body(Collections.emptyList()));
+    }
     // Создать фильтр
     PlayerFilter filter = createFilter(queryParams);
-    // Получить список игроков из нашего сервиса
-    List<PlayerDto> players = playerService.getAllPlayers();
-    // Отфильтровать список игроков
-    List<PlayerDto> filteredPlayers = filterPlayers(filter, players);
-    sortPlayers(filteredPlayers, order);
-    List<PlayerDto> filteredSortedPaginatedPlayers = paginator.getPageData(filteredPlayers, pageNumber, pageSize);
-    return ResponseEntity.ok(filteredSortedPaginatedPlayers);
+    if (cursor != null) {
+      PlayerOrder playerOrder = getPlayerOrder(order);
+      PlayerCursor after = cursor.isEmpty() ? null : PlayerCursor.decode(cursor, playerOrder);
+      return async(() -> getPlayersByCursor(filter, playerOrder, pageSize, after, eTag));
+    }
+    // Получить из нашего сервиса отфильтрованную, отсортированную и разбитую на страницы в БД выборку
+    Pageable pageable = paginator.getPageable(pageNumber, pageSize, getPlayerOrder(order));
+    return async(() -> PlayerETags.ok(eTag).body(queryTimer.record(() -> playerService.getPlayers(filter, pageable))));
   }
 
-  private void sortPlayers(List<PlayerDto> playerDtos, String order) {
-    if (order == null) {
-      playerDtos.sort(sortById());
-    } else {
-      try {
-        PlayerOrder playerOrder = PlayerOrder.valueOf(order);
-
-        switch (playerOrder) {
-          case ID: {
-            playerDtos.sort(sortById());
-            break;
-          }
-          case NAME: {
-            playerDtos.sort(sortByName());
-            break;
-          }
-          case BIRTHDAY: {
-            playerDtos.sort(sortByBirthday());
-            break;
-          }
-          case EXPERIENCE: {
-            playerDtos.sort(sortByExperience());
-            break;
-          }
-          case LEVEL: {
-            playerDtos.sort(sortByLevel());
-            break;
-          }
-        }
-
-      } catch (Exception e) {
-        playerDtos.sort(sortById());
+  /**
+   * REST API - GET /rest/players?stream=true
+   * <p>
+   * Тот же фильтр и сортировка, что и у обычного запроса, но массив пишется в ответ по мере чтения
+   * строк из БД курсором, без сборки списка в памяти. Без pageSize отдаются все подходящие игроки.
+   * В отличие от остальных методов выполняется в потоке контейнера, который и пишет ответ.
+   */
+  @GetMapping(params = "stream=true")
+  public void streamPlayers(
+      @RequestParam Map<String, String> queryParams,
+      @RequestParam(name = "order", required = false) String order,
+      @RequestParam(name = "pageNumber", required = false) Integer pageNumber,
+      @RequestParam(name = "pageSize", required = false) Integer pageSize,
+      HttpServletResponse response
+  ) throws IOException {
+    PlayerFilter filter = createFilter(queryParams);
+    Pageable pageable = paginator.isEmptyPage(pageSize)
+        ? null : paginator.getStreamPageable(pageNumber, pageSize, getPlayerOrder(order));
+
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+      generator.writeStartArray();
+      if (pageable != null) {
+        playerService.forEachPlayer(filter, pageable, player -> writePlayer(generator, player));
       }
+      generator.writeEndArray();
     }
   }
 
-  private Comparator<PlayerDto> sortById() {
-    return (player1, player2) -> {
-      return Long.compare(player1.getId(), player2.getId());
-    };
-  }
-
-  private Comparator<PlayerDto> sortByName() {
-    return (player1, player2) -> {
-      return player1.getName().compareTo(player2.getName());
-    };
-  }
-
-  private Comparator<PlayerDto> sortByBirthday() {
-    return (player1, player2) -> {
-      Long player1Birthday = player1.getBirthday();
-      Long player2Birthday = player2.getBirthday();
-      return Long.compare(player1Birthday, player2Birthday);
-    };
+  private void writePlayer(JsonGenerator generator, PlayerDto player) {
+    try {
+      generator.writeObject(player);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
-  private Comparator<PlayerDto> sortByExperience() {
-    return (player1, player2) -> {
-      return Integer.compare(player1.getExperience(), player2.getExperience());
-    };
+  /**
+   * REST API - GET /rest/players/export?format=csv|ndjson
+   * <p>
+   * Выгрузка всех подходящих под фильтр игроков (по умолчанию в порядке ID). Длина ответа заранее
+   * неизвестна, поэтому он уходит chunked-кодированием; при Accept-Encoding: gzip сжимается на лету.
+   */
+  @GetMapping(value = "/export")
+  public void exportPlayers(
+      @RequestParam Map<String, String> queryParams,
+      @RequestParam(name = "format", defaultValue = "csv") String format,
+      @RequestParam(name = "order", required = false) String order,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      HttpServletResponse response
+  ) throws IOException {
+    ExportFormat exportFormat = ExportFormat.of(format);
+    PlayerFilter filter = createFilter(queryParams);
+    Pageable pageable = paginator.getStreamPageable(null, null, getPlayerOrder(order));
+
+    response.setContentType(exportFormat.getContentType());
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=\"players." + exportFormat.getFileExtension() + "\"");
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+    if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE)) {
+        playerExporter.export(exportFormat, filter, pageable, out);
+      }
+    } else {
+      playerExporter.export(exportFormat, filter, pageable, response.getOutputStream());
+    }
   }
 
-  private Comparator<PlayerDto> sortByLevel() {
-    return (player1, player2) -> {
-      return Integer.compare(player1.getLevel(), player2.getLevel());
-    };
+  /**
+   * Keyset-режим: включается параметром cursor (пустой - первая страница).
+   * Токен следующей страницы возвращается в заголовке X-Next-Cursor, пока страница заполнена целиком.
+   */
+  private ResponseEntity<List<PlayerDto>> getPlayersByCursor(
+      PlayerFilter filter, PlayerOrder playerOrder, Integer pageSize, PlayerCursor after, String eTag) {
+    Pageable pageable = paginator.getPageable(0, pageSize, playerOrder);
+    List<PlayerDto> players = queryTimer.record(() -> playerService.getPlayersAfter(filter, after, pageable));
+
+    ResponseEntity.BodyBuilder response = PlayerETags.ok(eTag);
+    if (!players.isEmpty() && players.size() == pageable.getPageSize()) {
+      PlayerDto lastPlayer = players.get(players.size() - 1);
+      response.header(PlayerCursor.NEXT_CURSOR_HEADER, PlayerCursor.of(playerOrder, lastPlayer).encode());
+    }
+    return response.body(players);
   }
 
   private PlayerFilter createFilter(Map<String, String> queryParams) {
@@ -143,6 +254,18 @@ public class PlayersController {
     return filter;
   }
 
+  private PlayerOrder getPlayerOrder(String order) {
+    if (order == null) {
+      return PlayerOrder.ID;
+    } else {
+      try {
+        return PlayerOrder.valueOf(order);
+      } catch (Exception e) {
+        return PlayerOrder.ID;
+      }
+    }
+  }
+
   private Profession getProfessionFilter(String professionFilter) {
     if (professionFilter == null) {
       return null;
@@ -191,186 +314,113 @@ public class PlayersController {
     }
   }
 
-  private List<PlayerDto> filterPlayers(PlayerFilter filter, List<PlayerDto> players) {
-    return players.stream()
-        .filter(byName(filter))
-        .filter(byTitle(filter))
-        .filter(byBanned(filter))
-        .filter(byBirthday(filter))
-        .filter(byRace(filter))
-        .filter(byProfession(filter))
-        .filter(byExperience(filter))
-        .filter(byLevel(filter))
-        .collect(Collectors.toList());
-  }
-
-  private Predicate<PlayerDto> byName(PlayerFilter filter) {
-    return playerDto -> {
-      if (filter.getName() == null) {
-        return true;
-      } else {
-        return playerDto.getName().toLowerCase().contains(filter.getName().toLowerCase());
-      }
-    };
-  }
-
-  private Predicate<PlayerDto> byTitle(PlayerFilter filter) {
-    return playerDto -> {
-      if (filter.getTitle() == null) {
-        return true;
-      } else {
-        return playerDto.getTitle().toLowerCase().contains(filter.getTitle().toLowerCase());
-      }
-    };
-  }
-
-  private Predicate<PlayerDto> byProfession(PlayerFilter filter) {
-    return playerDto -> {
-      if (filter.getProfession() == null) {
-        return true;
-      } else {
-        return playerDto.getProfession().equals(filter.getProfession());
-      }
-    };
-  }
-
-  private Predicate<PlayerDto> byRace(PlayerFilter filter) {
-    return playerDto -> {
-      if (filter.getRace() == null) {
-        return true;
-      } else {
-        return playerDto.getRace().equals(filter.getRace());
-      }
-    };
-  }
-
-  private Predicate<PlayerDto> byBanned(PlayerFilter filter) {
-    return playerDto -> {
-      if (filter.isBanned() != null) {
-        return playerDto.isBanned() == filter.isBanned();
-      } else {
-        return true;
-      }
-    };
-  }
-
-  private Predicate<PlayerDto> byBirthday(PlayerFilter filter) {
-    return playerDto -> {
-      return filterByBirthdayAfter(playerDto, filter.getBirthdayAfter()) &&
-          filterByBirthdayBefore(playerDto, filter.getBirthdayBefore());
-    };
-  }
-
-  private Predicate<PlayerDto> byExperience(PlayerFilter filter) {
-    return playerDto -> {
-      return filterByExperienceAfter(playerDto, filter.getExperienceAfter()) &&
-          filterByExperienceBefore(playerDto, filter.getExperienceBefore());
-    };
-  }
-
-  private Predicate<PlayerDto> byLevel(PlayerFilter filter) {
-    return playerDto -> {
-      return filterByLevelAfter(playerDto, filter.getLevelAfter()) &&
-          filterByLevelBefore(playerDto, filter.getLevelBefore());
-    };
-  }
-
-  private boolean filterByLevelAfter(PlayerDto playerDto, Integer levelAfter) {
-    if (levelAfter == null) {
-      return true;
-    } else {
-      return playerDto.getLevel() >= levelAfter;
-    }
-  }
-
-  private boolean filterByLevelBefore(PlayerDto playerDto, Integer levelBefore) {
-    if (levelBefore == null) {
-      return true;
-    } else {
-      return playerDto.getLevel() <= levelBefore;
-    }
-  }
-
-  private boolean filterByExperienceAfter(PlayerDto playerDto, Integer experienceAfter) {
-    if (experienceAfter == null) {
-      return true;
-    } else {
-      return playerDto.getExperience() >= experienceAfter;
-    }
-  }
-
-  private boolean filterByExperienceBefore(PlayerDto playerDto, Integer experienceBefore) {
-    if (experienceBefore == null) {
-      return true;
-    } else {
-      return playerDto.getExperience() <= experienceBefore;
-    }
-  }
-
-  private boolean filterByBirthdayAfter(PlayerDto playerDto, Long birthdayAfter) {
-    if (birthdayAfter == null) {
-      return true;
-    } else {
-      return playerDto.getBirthday() >= birthdayAfter;
-    }
-  }
-
-  private boolean filterByBirthdayBefore(PlayerDto playerDto, Long birthdayBefore) {
-    if (birthdayBefore == null) {
-      return true;
-    } else {
-      return playerDto.getBirthday() <= birthdayBefore;
-    }
-  }
-
   /**
    * REST API - GET /rest/players/{playerId}
+   * <p>
+   * ETag строится из версии игрока, которая обычно берется из PlayerCache, поэтому 304 отдается без запроса к БД.
    *
    * @return Player
    */
   @GetMapping(value = "/{playerId}")
-  public ResponseEntity<PlayerDto> getPlayer(@PathVariable long playerId) {
+  public CompletableFuture<ResponseEntity<PlayerDto>> getPlayer(
+      @PathVariable long playerId,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
     if (playerId <= 0) {
       throw new IllegalArgumentException("ID can't be zero");
     }
 
-    PlayerDto player = playerService.getPlayer(playerId);
-    return ResponseEntity.ok(player);
+    return async(() -> {
+      PlayerDto player = playerService.getPlayer(playerId);
+      String eTag = eTags.forPlayer(player);
+      if (PlayerETags.matches(ifNoneMatch, eTag)) {
+        return PlayerETags.notModified(eTag);
+      }
+      return PlayerETags.ok(eTag).body(player);
+    });
   }
 
   /**
    * REST API - POST /rest/players/{playerId}
+   * <p>
+   * С If-Match изменение применяется, только если игрок не менялся с момента выдачи ETag, иначе 412:
+   * клиент перечитывает игрока и повторяет запрос. Если игрока успели изменить между чтением и записью, 409.
    *
    * @return Updated player
    */
   @PostMapping(value = "/{playerId}")
-  public ResponseEntity<PlayerDto> changePlayer(
-      @PathVariable long playerId, @RequestBody PlayerDto player) {
+  public CompletableFuture<ResponseEntity<PlayerDto>> changePlayer(
+      @PathVariable long playerId, @RequestBody PlayerDto player,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
     if (playerId <= 0) {
       throw new IllegalArgumentException("ID can't be zero");
     }
 
     if (player.isEmpty()) {
-      return ResponseEntity.ok(playerService.getPlayer(playerId));
+      return async(() -> ResponseEntity.ok(playerService.getPlayer(playerId)));
     }
 
     player.setId(playerId);
 
     validateUpdateDto(player);
 
-    PlayerDto updatedPlayer = playerService.changePlayer(player);
-    return ResponseEntity.ok(updatedPlayer);
+    Set<Long> expectedVersions = PlayerETags.versionsOf(ifMatch, playerId);
+    return asyncWrite(() -> {
+      PlayerDto updatedPlayer = playerService.changePlayer(player, expectedVersions);
+      return ResponseEntity.ok().eTag(eTags.forPlayer(updatedPlayer)).body(updatedPlayer);
+    });
   }
 
   @PostMapping
-  public ResponseEntity<PlayerDto> createPlayer(
+  public CompletableFuture<ResponseEntity<PlayerDto>> createPlayer(
       @RequestBody PlayerDto player
   ) {
     validateDto(player);
-    PlayerDto result = playerService.createPlayer(player);
-    return ResponseEntity.ok(result);
+    return asyncWrite(() -> ResponseEntity.ok(playerService.createPlayer(player)));
+  }
+
+  /**
+   * REST API - POST /rest/players/batch
+   *
+   * @param players players without ID are created, players with ID are updated
+   * @return number of created and updated players
+   */
+  @PostMapping(value = "/batch")
+  public CompletableFuture<ResponseEntity<BatchResultDto>> savePlayers(
+      @RequestBody List<PlayerDto> players
+  ) {
+    for (PlayerDto player : players) {
+      if (player.hasId()) {
+        if (player.getId() <= 0) {
+          throw new IllegalArgumentException("ID can't be zero");
+        }
+        validateUpdateDto(player);
+      } else {
+        validateDto(player);
+      }
+    }
+    return asyncWrite(() -> ResponseEntity.ok(playerService.savePlayers(players)));
+  }
+
+  /**
+   * REST API - POST /rest/players/experience?amount=N
+   * <p>
+   * Добавляет N опыта всем игрокам, подходящим под те же параметры фильтра, что и у GET /rest/players,
+   * одним UPDATE в БД. Опыт игрока не превышает 10 000 000.
+   *
+   * @return number of updated players
+   */
+  @PostMapping(value = "/experience")
+  public CompletableFuture<ResponseEntity<Integer>> grantExperience(
+      @RequestParam Map<String, String> queryParams,
+      @RequestParam(name = "amount") int amount
+  ) {
+    if (amount <= 0 || amount > PlayerService.MAX_EXPERIENCE) {
+      throw new IllegalArgumentException("Bad experience");
+    }
+    PlayerFilter filter = createFilter(queryParams);
+    return asyncWrite(() -> ResponseEntity.ok(playerService.grantExperience(filter, amount)));
   }
 
   private void validateDto(PlayerDto player) {
@@ -415,14 +465,16 @@ public class PlayersController {
    * @return HTTP code 200 and message
    */
   @DeleteMapping(value = "{playerId}")
-  public ResponseEntity<String> deletePlayer(@PathVariable long playerId) {
+  public CompletableFuture<ResponseEntity<String>> deletePlayer(@PathVariable long playerId) {
 
     if (playerId <= 0) {
       throw new IllegalArgumentException("ID can't be zero");
     }
 
-    playerService.deletePlayer(playerId);
-    return ResponseEntity.ok(String.format("Player with id %d deleted!", playerId));
+    return asyncWrite(() -> {
+      playerService.deletePlayer(playerId);
+      return ResponseEntity.ok(String.format("Player with id %d deleted!", playerId));
+    });
   }
 
   /**
@@ -431,18 +483,40 @@ public class PlayersController {
    * @return list of players
    */
   @GetMapping(value = "/count")
-  public ResponseEntity<Integer> getPlayersCount(
-      @RequestParam Map<String, String> queryParams
+  public CompletableFuture<ResponseEntity<Long>> getPlayersCount(
+      @RequestParam Map<String, String> queryParams,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
   ) {
 
+    String eTag = eTags.forTable();
+    if (PlayerETags.matches(ifNoneMatch, eTag)) {
+      return CompletableFuture.completedFuture(PlayerETags.notModified(eTag));
+    }
     // Создать фильтр
     PlayerFilter filter = createFilter(queryParams);
-    // Получить список игроков из нашего сервиса
-    List<PlayerDto> players = playerService.getAllPlayers();
-    // Отфильтровать список игроков
-    List<PlayerDto> filteredPlayers = filterPlayers(filter, players);
+    // Посчитать подходящих игроков в БД
+    return async(() -> PlayerETags.ok(eTag).body(playerService.getPlayersCount(filter)));
+
+  }
 
-    return ResponseEntity.ok(filteredPlayers.size());
+  /**
+   * REST API - GET /rest/players/facets
+   * <p>
+   * Число подходящих под фильтр игроков в каждой комбинации race x profession x banned за один запрос.
+   *
+   * @return counts for every race, profession and banned combination
+   */
+  @GetMapping(value = "/facets")
+  public CompletableFuture<ResponseEntity<List<PlayerFacetDto>>> getPlayerFacets(
+      @RequestParam Map<String, String> queryParams,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+  ) {
 
+    String eTag = eTags.forTable();
+    if (PlayerETags.matches(ifNoneMatch, eTag)) {
+      return CompletableFuture.completedFuture(PlayerETags.notModified(eTag));
+    }
+    PlayerFilter filter = createFilter(queryParams);
+    return async(() -> PlayerETags.ok(eTag).body(playerService.getPlayerFacets(filter)));
   }
 }
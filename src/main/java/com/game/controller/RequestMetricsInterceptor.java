@@ -0,0 +1,59 @@
+package com.game.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Время обработки каждого запроса в разрезе метода, шаблона URI и статуса ответа.
+ * Счетчик таймера дает число запросов по статусам, перцентили p50/p95/p99 считаются на месте,
+ * а гистограмма позволяет агрегировать их по нескольким экземплярам в Prometheus.
+ */
+@Component
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+  public static final String METRIC_NAME = "http.server.requests";
+
+  private static final String SAMPLE_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".sample";
+
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  public RequestMetricsInterceptor(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    // При асинхронной обработке preHandle вызывается повторно при ASYNC-диспетчеризации,
+    // а время должно считаться от первого вызова
+    if (request.getAttribute(SAMPLE_ATTRIBUTE) == null) {
+      request.setAttribute(SAMPLE_ATTRIBUTE, Timer.start(meterRegistry));
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    Timer.Sample sample = (Timer.Sample) request.getAttribute(SAMPLE_ATTRIBUTE);
+    if (sample == null) {
+      return;
+    }
+    request.removeAttribute(SAMPLE_ATTRIBUTE);
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+    sample.stop(Timer.builder(METRIC_NAME)
+        .tag("method", request.getMethod())
+        .tag("uri", (pattern == null) ? "UNKNOWN" : pattern.toString())
+        .tag("status", String.valueOf(response.getStatus()))
+        .tag("exception", (ex == null) ? "None" : ex.getClass().getSimpleName())
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+  }
+}
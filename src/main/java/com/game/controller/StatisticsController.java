@@ -0,0 +1,60 @@
+package com.game.controller;
+
+import com.game.config.ConnectionPoolStatistics;
+import com.game.config.HibernateStatistics;
+import com.game.service.PlayerCache;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@Controller
+@RequestMapping(value = "/rest/stats")
+public class StatisticsController {
+
+  private final ConnectionPoolStatistics connectionPoolStatistics;
+  private final PlayerCache playerCache;
+  private final HibernateStatistics hibernateStatistics;
+
+  @Autowired
+  public StatisticsController(
+      ConnectionPoolStatistics connectionPoolStatistics,
+      PlayerCache playerCache,
+      HibernateStatistics hibernateStatistics) {
+    this.connectionPoolStatistics = connectionPoolStatistics;
+    this.playerCache = playerCache;
+    this.hibernateStatistics = hibernateStatistics;
+  }
+
+  /**
+   * REST API - GET /rest/stats/pool
+   *
+   * @return connection pool statistics
+   */
+  @GetMapping(value = "/pool")
+  public ResponseEntity<Map<String, Number>> getPoolStatistics() {
+    return ResponseEntity.ok(connectionPoolStatistics.getSnapshot());
+  }
+
+  /**
+   * REST API - GET /rest/stats/cache
+   *
+   * @return player cache statistics
+   */
+  @GetMapping(value = "/cache")
+  public ResponseEntity<Map<String, Number>> getCacheStatistics() {
+    return ResponseEntity.ok(playerCache.getSnapshot());
+  }
+
+  /**
+   * REST API - GET /rest/stats/hibernate
+   *
+   * @return second-level and query cache statistics
+   */
+  @GetMapping(value = "/hibernate")
+  public ResponseEntity<Map<String, Object>> getHibernateStatistics() {
+    return ResponseEntity.ok(hibernateStatistics.getSnapshot());
+  }
+}
@@ -0,0 +1,31 @@
+package com.game.dto;
+
+public class BatchResultDto {
+    private int created;
+    private int updated;
+
+    public BatchResultDto() {
+        // do nothing
+    }
+
+    public BatchResultDto(int created, int updated) {
+        this.created = created;
+        this.updated = updated;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResultDto{" +
+                "created=" + created +
+                ", updated=" + updated +
+                '}';
+    }
+}
@@ -1,7 +1,9 @@
 package com.game.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.game.entity.Profession;
 import com.game.entity.Race;
+import java.util.Date;
 
 public class PlayerDto {
     private Long id;
@@ -14,6 +16,9 @@ public class PlayerDto {
     private Integer level;
     private Integer untilNextLevel;
     private String title;
+    // Не сериализуется: клиент получает версию в ETag
+    @JsonIgnore
+    private long version;
 
     public PlayerDto() {
         // do nothing
@@ -32,6 +37,22 @@ public class PlayerDto {
         this.untilNextLevel = untilNextLevel;
     }
 
+    // Для проекции SELECT new PlayerDto(...) в PlayerRepositoryCustomImpl
+    public PlayerDto(Long id, String name, String title, Race race, Profession profession, Date birthday, Boolean banned,
+                     Integer experience, Integer level, Integer untilNextLevel, Long version) {
+        this.id = id;
+        this.name = name;
+        this.title = title;
+        this.race = race;
+        this.profession = profession;
+        this.birthday = birthday == null ? null : birthday.getTime();
+        this.banned = banned;
+        this.experience = experience;
+        this.level = level;
+        this.untilNextLevel = untilNextLevel;
+        this.version = version;
+    }
+
     public boolean isEmpty() {
         return id == null &&
             name == null &&
@@ -44,6 +65,10 @@ public class PlayerDto {
             untilNextLevel == null;
     }
 
+    public boolean hasId() {
+        return id != null;
+    }
+
     public long getId() {
         return id;
     }
@@ -88,7 +113,7 @@ public class PlayerDto {
         return banned;
     }
 
-    public void setBanned(boolean banned) {
+    public void setBanned(Boolean banned) {
         this.banned = banned;
     }
 
@@ -124,6 +149,14 @@ public class PlayerDto {
         this.title = title;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "PlayerDto{" +
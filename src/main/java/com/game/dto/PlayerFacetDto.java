@@ -0,0 +1,49 @@
+package com.game.dto;
+
+import com.game.entity.Profession;
+import com.game.entity.Race;
+
+public class PlayerFacetDto {
+    private Race race;
+    private Profession profession;
+    private boolean banned;
+    private long count;
+
+    public PlayerFacetDto() {
+        // do nothing
+    }
+
+    // Для проекции SELECT new PlayerFacetDto(race, profession, banned, COUNT(*)) ... GROUP BY
+    public PlayerFacetDto(Race race, Profession profession, Boolean banned, Long count) {
+        this.race = race;
+        this.profession = profession;
+        this.banned = Boolean.TRUE.equals(banned);
+        this.count = count;
+    }
+
+    public Race getRace() {
+        return race;
+    }
+
+    public Profession getProfession() {
+        return profession;
+    }
+
+    public boolean isBanned() {
+        return banned;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerFacetDto{" +
+                "race=" + race +
+                ", profession=" + profession +
+                ", banned=" + banned +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -1,18 +1,35 @@
 package com.game.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Version;
 import java.sql.Date;
-import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @Entity(name = "player")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "player")
 public class PlayerEntity {
+    // IDENTITY не позволяет Hibernate группировать INSERT в JDBC-пакеты, поэтому ID выдаются
+    // блоками из таблицы-последовательности player_seq (pooled-lo: в таблице хранится следующий свободный ID)
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "player_seq")
+    @GenericGenerator(
+            name = "player_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "player_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private Long id;
     private String name;
     private String title;
@@ -25,6 +42,11 @@ public class PlayerEntity {
     private Integer experience;
     private Integer level;
     private Integer untilNextLevel;
+    // Номер изменения строки: Hibernate увеличивает его при каждом UPDATE и добавляет в WHERE
+    // условие на прочитанное значение, поэтому параллельная запись не затирается молча.
+    // Из него же строится ETag игрока
+    @Version
+    private long version;
 
     public Long getId() {
         return id;
@@ -66,6 +88,10 @@ public class PlayerEntity {
         return untilNextLevel;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -106,6 +132,10 @@ public class PlayerEntity {
         this.untilNextLevel = untilNextLevel;
     }
 
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "PlayerEntity{" +
@@ -119,6 +149,7 @@ public class PlayerEntity {
                 ", experience=" + experience +
                 ", level=" + level +
                 ", untilNextLevel=" + untilNextLevel +
+                ", version=" + version +
                 '}';
     }
 }
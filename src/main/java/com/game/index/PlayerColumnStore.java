@@ -0,0 +1,892 @@
+package com.game.index;
+
+import com.game.controller.PlayerFilter;
+import com.game.controller.PlayerListStage;
+import com.game.controller.PlayerOrder;
+import com.game.dto.PlayerDto;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.repository.PlayerRepository;
+import com.game.repository.PlayerSpecifications;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Date;
+import java.text.Collator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Копия таблицы player в памяти по столбцам: примитивные массивы для чисел, коды enum-ов в byte[],
+ * словари с индексом триграмм для имени и титула и битовые карты для banned и каждого значения Race
+ * и Profession. Фильтр и сортировка из {@link PlayerFilter} и {@link PlayerOrder} выполняются по номерам
+ * строк, PlayerDto создаются только для отдаваемой страницы. Условия на race, profession, banned и
+ * подстроки имени и титула проверяются пересечением битовых карт по 64 строки за раз, остальные -
+ * по строкам из пересечения.
+ * <p>
+ * Загружается из БД при первом обращении ({@link #load()}) и обновляется записями PlayerService
+ * после фиксации их транзакций. Запрос, заставший хранилище сброшенным, сам загружает его заново. Изменения в обход сервиса видны только после {@link #invalidate()},
+ * массовые изменения сервиса - после повторной загрузки.
+ * Удаленные строки остаются в массивах с пометкой до следующей загрузки.
+ * <p>
+ * Значения хранятся такими, какими их вернула бы БД: день рождения - датой DATE, а NULL в birthday,
+ * experience, level, untilNextLevel и banned отмечается отдельной битовой картой. Как и в SQL, строка
+ * с NULL не проходит ни одно условие на этот столбец (в том числе banned=false), а в ORDER BY идет первой.
+ * Порядок имен задает players.query.nameCollation: binary - String.compareTo, как у H2 по умолчанию
+ * и у collation *_bin в MySQL; ci - Collator без учета регистра и диакритики, как utf8mb4_0900_ai_ci,
+ * collation MySQL 8 по умолчанию. Имена, равные в этом порядке, упорядочиваются по ID. С другими
+ * collation и в редких случаях с ci (знаки препинания, иероглифы) порядок по имени может отличаться от БД.
+ * <p>
+ * При players.query.parallelism больше 1 таблицы и выборки от players.query.parallelThreshold строк
+ * фильтруются частями по словам битовых карт и сортируются частями с последующим слиянием в отдельном
+ * ForkJoinPool этого размера, а не в общем пуле JVM.
+ */
+@Component
+public class PlayerColumnStore implements DisposableBean {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Частей на поток: части с разным числом подходящих строк выравниваются между потоками
+    private static final int CHUNKS_PER_THREAD = 4;
+    // Страница отбирается кучей, если она во столько раз меньше выборки
+    private static final int TOP_K_RATIO = 8;
+    private static final int KEY_BLOCK_SIZE = 1024;
+    private static final byte NULL_ORDINAL = -1;
+    private static final Race[] RACES = Race.values();
+    private static final Profession[] PROFESSIONS = Profession.values();
+    public static final int FACET_COUNT = RACES.length * PROFESSIONS.length * 2;
+
+    private final PlayerRepository playerRepository;
+    private final TransactionTemplate loadTransaction;
+    private final int loadFetchSize;
+    // null - параллельный режим выключен
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final Comparator<String> nameOrder;
+    private final Timer filterTimer;
+    private final Timer sortTimer;
+    private final Timer paginateTimer;
+    private final Timer mappingTimer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+    // Число занятых строк, включая удаленные, и длина столбцов
+    private int size;
+    private int capacity;
+    // Строки идут по возрастанию ID: загрузка читает таблицу по ID, а новые игроки обычно получают ID больше прежних
+    private boolean rowsInIdOrder;
+    private long[] ids;
+    private long[] versions;
+    // Номера дат (LocalDate.toEpochDay), которые сохранил столбец DATE
+    private int[] birthdays;
+    private int[] experiences;
+    private int[] levels;
+    private int[] untilNextLevels;
+    private byte[] races;
+    private byte[] professions;
+    private int[] nameCodes;
+    private int[] titleCodes;
+    private RowBitmap banned;
+    private RowBitmap nullBirthdays;
+    private RowBitmap nullExperiences;
+    private RowBitmap nullLevels;
+    private RowBitmap nullUntilNextLevels;
+    private RowBitmap nullBanned;
+    private RowBitmap live;
+    private RowBitmap[] raceRows;
+    private RowBitmap[] professionRows;
+    private StringDictionary names;
+    private StringDictionary titles;
+    private Map<Long, Integer> rowsById;
+
+    @Autowired
+    public PlayerColumnStore(
+            PlayerRepository playerRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${db.stream.fetchSize:500}") int loadFetchSize,
+            @Value("${players.query.parallelism:1}") int parallelism,
+            @Value("${players.query.parallelThreshold:100000}") int parallelThreshold,
+            @Value("${players.query.nameCollation:binary}") String nameCollation) {
+        this.playerRepository = playerRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setReadOnly(true);
+        this.loadFetchSize = loadFetchSize;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.parallelThreshold = parallelThreshold;
+        this.nameOrder = getNameOrder(nameCollation);
+        this.filterTimer = PlayerListStage.FILTER.timer(meterRegistry);
+        this.sortTimer = PlayerListStage.SORT.timer(meterRegistry);
+        this.paginateTimer = PlayerListStage.PAGINATE.timer(meterRegistry);
+        this.mappingTimer = PlayerListStage.MAPPING.timer(meterRegistry);
+        clear(INITIAL_CAPACITY);
+    }
+
+    private static Comparator<String> getNameOrder(String nameCollation) {
+        switch (nameCollation) {
+            case "binary":
+                return Comparator.naturalOrder();
+            case "ci":
+                Collator collator = Collator.getInstance(Locale.ROOT);
+                collator.setStrength(Collator.PRIMARY);
+                return collator::compare;
+            default:
+                throw new IllegalArgumentException("Unknown players.query.nameCollation: " + nameCollation);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Читает всю таблицу курсором, если хранилище еще не загружено. Записи, зафиксированные во время
+     * загрузки, ждут ее окончания и применяются следом.
+     */
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clear(INITIAL_CAPACITY);
+            Pageable byId = PageRequest.of(0, Integer.MAX_VALUE, Sort.by(PlayerOrder.ID.getFieldName()));
+            // Курсор открыт только внутри транзакции
+            loadTransaction.executeWithoutResult(status -> {
+                try (Stream<PlayerDto> players = playerRepository.streamPlayerDtos(
+                        Specification.where(null), byId, loadFetchSize)) {
+                    players.forEach(this::append);
+                }
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Выполняет {@code query} под блокировкой чтения над загруженным хранилищем. Между проверкой и
+     * блокировкой хранилище могла сбросить массовая запись: тогда оно загружается заново и запрос повторяется.
+     */
+    private <T> T readLoaded(Supplier<T> query) {
+        while (true) {
+            lock.readLock().lock();
+            try {
+                if (loaded) {
+                    return query.get();
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            load();
+        }
+    }
+
+    /**
+     * Сбрасывает содержимое: следующий запрос загрузит таблицу заново.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            clear(INITIAL_CAPACITY);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Сбрасывает содержимое после фиксации текущей транзакции или сразу, если ее нет: для изменений,
+     * которые БД применила по условию сразу ко многим строкам, и новое состояние строк сервису неизвестно.
+     */
+    public void invalidateAfterCommit() {
+        afterCommit(() -> {
+            loaded = false;
+            clear(INITIAL_CAPACITY);
+        });
+    }
+
+    /**
+     * Применяет новое состояние игроков после фиксации текущей транзакции или сразу, если ее нет.
+     * Состояние с версией старше уже сохраненной пропускается: обработчики фиксации параллельных
+     * транзакций могут выполниться не в том порядке, в котором транзакции были зафиксированы.
+     */
+    public void update(Collection<PlayerDto> players) {
+        afterCommit(() -> {
+            for (PlayerDto player : players) {
+                upsert(player);
+            }
+        });
+    }
+
+    public void remove(long playerId) {
+        afterCommit(() -> {
+            Integer row = rowsById.get(playerId);
+            if (row != null) {
+                // ID остается в rowsById, чтобы запоздавшее обновление не вернуло удаленного игрока
+                live.set(row, false);
+            }
+        });
+    }
+
+    /**
+     * Если в фильтре нет условий кроме race, profession, banned, name и title, ответ - число единиц
+     * в пересечении битовых карт.
+     */
+    public long count(PlayerFilter filter) {
+        return readLoaded(() -> (long) scan(new RowFilter(filter), null));
+    }
+
+    /**
+     * Число подходящих под фильтр игроков в каждой комбинации race x profession x banned,
+     * по индексам {@link #facetIndex}. Игроки без расы или профессии не входят ни в одну комбинацию.
+     */
+    public long[] facetCounts(PlayerFilter filter) {
+        return readLoaded(() -> {
+            RowFilter rowFilter = new RowFilter(filter);
+            long[] counts = new long[FACET_COUNT];
+            if (rowFilter.hasRowConditions()) {
+                int[] rows = new int[(int) live.cardinality()];
+                int found = scan(rowFilter, rows);
+                for (int i = 0; i < found; i++) {
+                    int row = rows[i];
+                    if (races[row] != NULL_ORDINAL && professions[row] != NULL_ORDINAL) {
+                        counts[facetIndex(races[row], professions[row], banned.get(row))]++;
+                    }
+                }
+                return counts;
+            }
+
+            // NULL в banned попадает в banned=false, как и в GROUP BY в БД, где PlayerFacetDto считает его false
+            int wordCount = RowBitmap.wordCount(size);
+            for (int race = 0; race < RACES.length; race++) {
+                for (int profession = 0; profession < PROFESSIONS.length; profession++) {
+                    long bannedCount = 0;
+                    long notBannedCount = 0;
+                    for (int i = 0; i < wordCount; i++) {
+                        long word = rowFilter.candidates(i) & raceRows[race].word(i) & professionRows[profession].word(i);
+                        bannedCount += Long.bitCount(word & banned.word(i));
+                        notBannedCount += Long.bitCount(word & ~banned.word(i));
+                    }
+                    counts[facetIndex(race, profession, true)] = bannedCount;
+                    counts[facetIndex(race, profession, false)] = notBannedCount;
+                }
+            }
+            return counts;
+        });
+    }
+
+    public static int facetIndex(int raceOrdinal, int professionOrdinal, boolean isBanned) {
+        return (raceOrdinal * PROFESSIONS.length + professionOrdinal) * 2 + (isBanned ? 1 : 0);
+    }
+
+    /**
+     * Страница подходящих под фильтр игроков в порядке первого поля сортировки из {@code pageable}
+     * (одного из {@link PlayerOrder}) и затем ID, как в запросе к БД. Время каждого этапа пишется
+     * в свой таймер {@link PlayerListStage}.
+     */
+    public List<PlayerDto> find(PlayerFilter filter, Pageable pageable) {
+        return readLoaded(() -> {
+            int[] rows = new int[(int) live.cardinality()];
+            int found = filterTimer.record(() -> scan(new RowFilter(filter), rows));
+
+            long from = pageable.isPaged() ? pageable.getOffset() : 0;
+            if (from >= found) {
+                return Collections.emptyList();
+            }
+            int to = pageable.isPaged() ? (int) Math.min(found, from + pageable.getPageSize()) : found;
+
+            sortTimer.record(() -> sort(rows, found, to, getOrder(pageable.getSort())));
+
+            int[] pageRows = paginateTimer.record(() -> Arrays.copyOfRange(rows, (int) from, to));
+
+            return mappingTimer.record(() -> {
+                List<PlayerDto> page = new ArrayList<>(pageRows.length);
+                for (int row : pageRows) {
+                    page.add(toDto(row));
+                }
+                return page;
+            });
+        });
+    }
+
+    /**
+     * Перебирает слова пересечения битовых карт и проверяет остальные условия только у строк из него.
+     * Номера подходящих строк по возрастанию пишутся в {@code rows}, если он передан.
+     *
+     * @return число подходящих строк
+     */
+    private int scan(RowFilter rowFilter, int[] rows) {
+        int wordCount = RowBitmap.wordCount(size);
+        // Число строк только по битовым картам считается быстрее, чем распределяется работа
+        boolean popCountOnly = rows == null && !rowFilter.hasRowConditions();
+        if (pool == null || size < parallelThreshold || popCountOnly) {
+            return scan(rowFilter, rows, 0, wordCount);
+        }
+
+        // Каждая часть пишет строки в свой массив, затем они склеиваются по порядку частей
+        int chunkCount = Math.min(wordCount, pool.getParallelism() * CHUNKS_PER_THREAD);
+        int[][] chunkRows = new int[chunkCount][];
+        List<ForkJoinTask<Integer>> chunks = new ArrayList<>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int fromWord = (int) ((long) wordCount * chunk / chunkCount);
+            int toWord = (int) ((long) wordCount * (chunk + 1) / chunkCount);
+            int index = chunk;
+            chunks.add(pool.submit(() -> {
+                if (rows != null) {
+                    chunkRows[index] = new int[(toWord - fromWord) * Long.SIZE];
+                }
+                return scan(rowFilter, chunkRows[index], fromWord, toWord);
+            }));
+        }
+        int found = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int chunkFound = chunks.get(chunk).join();
+            if (rows != null) {
+                System.arraycopy(chunkRows[chunk], 0, rows, found, chunkFound);
+            }
+            found += chunkFound;
+        }
+        return found;
+    }
+
+    private int scan(RowFilter rowFilter, int[] rows, int fromWord, int toWord) {
+        int found = 0;
+        for (int i = fromWord; i < toWord; i++) {
+            long word = rowFilter.retain(rowFilter.candidates(i), i);
+            if (rows == null) {
+                found += Long.bitCount(word);
+                continue;
+            }
+            while (word != 0) {
+                rows[found++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Ставит по порядку первые {@code limit} из {@code found} строк, остальные остаются в произвольном порядке.
+     * Строки сравниваются по ключам {@link #fillKeys}: если страница много меньше выборки, {@code limit}
+     * наименьших отбираются кучей, иначе ключи сортируются целиком, большие выборки - {@link #parallelSort}.
+     * Компаратор строк нужен, только когда ключи построить нельзя.
+     */
+    private void sort(int[] rows, int found, int limit, PlayerOrder order) {
+        if (order == PlayerOrder.ID && rowsInIdOrder) {
+            // scan выдает строки по возрастанию
+            return;
+        }
+        boolean topK = limit <= found / TOP_K_RATIO;
+        if (!hasSortKeys(order)) {
+            if (topK) {
+                RowSort.selectSmallest(rows, found, limit, comparator(order));
+            } else {
+                RowSort.sort(rows, 0, found, comparator(order));
+            }
+            return;
+        }
+
+        long[] keys;
+        if (topK) {
+            // Ключи считаются порциями, в памяти только куча из limit ключей и одна порция
+            keys = new long[limit];
+            long[] block = new long[Math.min(found, KEY_BLOCK_SIZE)];
+            int size = 0;
+            for (int from = 0; from < found; from += block.length) {
+                int to = Math.min(found, from + block.length);
+                fillKeys(rows, from, to, block, order);
+                for (int i = 0; i < to - from; i++) {
+                    size = RowSort.offer(keys, size, block[i]);
+                }
+            }
+            Arrays.sort(keys, 0, size);
+        } else {
+            keys = new long[found];
+            fillKeys(rows, 0, found, keys, order);
+            if (pool != null && found >= parallelThreshold) {
+                parallelSort(keys);
+            } else {
+                Arrays.sort(keys);
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            rows[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Делит ключи на столько частей, сколько потоков в пуле, сортирует каждую в своей задаче пула,
+     * затем сливает соседние части попарно, тоже в пуле, пока не останется одна. Arrays.parallelSort
+     * для этого не подходит: он делит массив по параллелизму общего пула JVM, а не players.query.parallelism.
+     */
+    private void parallelSort(long[] keys) {
+        int parts = pool.getParallelism();
+        int[] bounds = new int[parts + 1];
+        for (int part = 0; part <= parts; part++) {
+            bounds[part] = (int) ((long) keys.length * part / parts);
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(parts);
+        for (int part = 0; part < parts; part++) {
+            int from = bounds[part];
+            int to = bounds[part + 1];
+            tasks.add(pool.submit(() -> Arrays.sort(keys, from, to)));
+        }
+        joinAll(tasks);
+
+        // Каждый проход сливает пары соседних частей из одного массива в другой, и массивы меняются местами
+        long[] source = keys;
+        long[] target = new long[keys.length];
+        for (int width = 1; width < parts; width *= 2) {
+            tasks.clear();
+            for (int part = 0; part < parts; part += 2 * width) {
+                int from = bounds[part];
+                int middle = bounds[Math.min(part + width, parts)];
+                int to = bounds[Math.min(part + 2 * width, parts)];
+                long[] mergeSource = source;
+                long[] mergeTarget = target;
+                tasks.add(pool.submit(() -> merge(mergeSource, from, middle, to, mergeTarget)));
+            }
+            joinAll(tasks);
+            long[] merged = target;
+            target = source;
+            source = merged;
+        }
+        if (source != keys) {
+            System.arraycopy(source, 0, keys, 0, keys.length);
+        }
+    }
+
+    private static void joinAll(List<ForkJoinTask<?>> tasks) {
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    // Ключи различны (младшие 32 бита - номер строки), поэтому устойчивость слияния не важна
+    private static void merge(long[] source, int from, int middle, int to, long[] target) {
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right == to || left < middle && source[left] < source[right]) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    // Ключи не годятся, если строки не по порядку ID или в поле есть NULL: его место знает только компаратор
+    private boolean hasSortKeys(PlayerOrder order) {
+        RowBitmap nullRows = nullRows(order);
+        return rowsInIdOrder && (nullRows == null || nullRows.isEmpty());
+    }
+
+    // Карта строк с NULL в поле порядка; null для ID и NAME, у которого NULL - отдельный код словаря
+    private RowBitmap nullRows(PlayerOrder order) {
+        switch (order) {
+            case EXPERIENCE:
+                return nullExperiences;
+            case BIRTHDAY:
+                return nullBirthdays;
+            case LEVEL:
+                return nullLevels;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Пишет в {@code keys} ключи строк {@code rows[from] ... rows[to - 1]}: значение поля в старших 32 битах
+     * и номер строки в младших. Пока строки идут по возрастанию ID, номер строки упорядочивает равные значения
+     * так же, как ID в запросе к БД. Для каждого порядка свой цикл по примитивному столбцу, без вызовов
+     * через интерфейс.
+     */
+    private void fillKeys(int[] rows, int from, int to, long[] keys, PlayerOrder order) {
+        switch (order) {
+            case NAME:
+                int[] nameRanks = names.ranks();
+                for (int i = from; i < to; i++) {
+                    int code = nameCodes[rows[i]];
+                    // NULL меньше любого значения, как в compareCodes
+                    long rank = code == StringDictionary.NULL_CODE ? -1 : nameRanks[code];
+                    keys[i - from] = (rank << 32) | rows[i];
+                }
+                break;
+            case EXPERIENCE:
+                for (int i = from; i < to; i++) {
+                    keys[i - from] = ((long) experiences[rows[i]] << 32) | rows[i];
+                }
+                break;
+            case BIRTHDAY:
+                for (int i = from; i < to; i++) {
+                    keys[i - from] = ((long) birthdays[rows[i]] << 32) | rows[i];
+                }
+                break;
+            case LEVEL:
+                for (int i = from; i < to; i++) {
+                    keys[i - from] = ((long) levels[rows[i]] << 32) | rows[i];
+                }
+                break;
+            default:
+                for (int i = from; i < to; i++) {
+                    keys[i - from] = rows[i];
+                }
+                break;
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable lockedChange = () -> {
+            lock.writeLock().lock();
+            try {
+                // До загрузки изменения не нужны: загрузка прочитает их из БД
+                if (loaded) {
+                    change.run();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lockedChange.run();
+                }
+            });
+        } else {
+            lockedChange.run();
+        }
+    }
+
+    private void upsert(PlayerDto player) {
+        Integer row = rowsById.get(player.getId());
+        if (row == null) {
+            append(player);
+        } else if (live.get(row) && player.getVersion() >= versions[row]) {
+            write(row, player);
+        }
+    }
+
+    private void append(PlayerDto player) {
+        if (size == capacity) {
+            grow(capacity * 2);
+        }
+        if (size > 0 && player.getId() < ids[size - 1]) {
+            rowsInIdOrder = false;
+        }
+        int row = size++;
+        rowsById.put(player.getId(), row);
+        live.set(row, true);
+        nameCodes[row] = StringDictionary.NULL_CODE;
+        titleCodes[row] = StringDictionary.NULL_CODE;
+        write(row, player);
+    }
+
+    // Состояние после записи сервиса несет день рождения в миллисекундах, как его прислал клиент,
+    // а БД сохранила только дату: хранится дата, чтобы ответы и порядок не зависели от источника
+    private void write(int row, PlayerDto player) {
+        ids[row] = player.getId();
+        versions[row] = player.getVersion();
+        Long birthday = player.getBirthday();
+        nullBirthdays.set(row, birthday == null);
+        birthdays[row] = birthday == null ? 0 : (int) PlayerSpecifications.toLocalDate(birthday).toEpochDay();
+        experiences[row] = writeNullable(nullExperiences, row, player.getExperience());
+        levels[row] = writeNullable(nullLevels, row, player.getLevel());
+        untilNextLevels[row] = writeNullable(nullUntilNextLevels, row, player.getUntilNextLevel());
+        races[row] = index(raceRows, races[row], row, player.getRace() == null ? NULL_ORDINAL : (byte) player.getRace().ordinal());
+        professions[row] = index(professionRows, professions[row], row,
+                player.getProfession() == null ? NULL_ORDINAL : (byte) player.getProfession().ordinal());
+        nameCodes[row] = index(names, nameCodes[row], row, names.encode(player.getName()));
+        titleCodes[row] = index(titles, titleCodes[row], row, titles.encode(player.getTitle()));
+        banned.set(row, Boolean.TRUE.equals(player.isBanned()));
+        nullBanned.set(row, player.isBanned() == null);
+    }
+
+    private static int writeNullable(RowBitmap nullRows, int row, Integer value) {
+        nullRows.set(row, value == null);
+        return value == null ? 0 : value;
+    }
+
+    // Переносит строку из карты прежнего значения в карту нового. У новой строки прежнее значение - 0,
+    // и ее бит в карте нулевого значения и так не установлен
+    private static byte index(RowBitmap[] valueRows, byte oldOrdinal, int row, byte newOrdinal) {
+        if (oldOrdinal != NULL_ORDINAL) {
+            valueRows[oldOrdinal].set(row, false);
+        }
+        if (newOrdinal != NULL_ORDINAL) {
+            valueRows[newOrdinal].set(row, true);
+        }
+        return newOrdinal;
+    }
+
+    private static int index(StringDictionary dictionary, int oldCode, int row, int newCode) {
+        if (oldCode != newCode) {
+            dictionary.removeRow(oldCode, row);
+            dictionary.addRow(newCode, row);
+        }
+        return newCode;
+    }
+
+    private PlayerDto toDto(int row) {
+        PlayerDto player = new PlayerDto();
+        player.setId(ids[row]);
+        player.setVersion(versions[row]);
+        player.setName(names.decode(nameCodes[row]));
+        player.setTitle(titles.decode(titleCodes[row]));
+        player.setRace(races[row] == NULL_ORDINAL ? null : RACES[races[row]]);
+        player.setProfession(professions[row] == NULL_ORDINAL ? null : PROFESSIONS[professions[row]]);
+        player.setBirthday(nullBirthdays.get(row) ? null : Date.valueOf(LocalDate.ofEpochDay(birthdays[row])).getTime());
+        player.setBanned(nullBanned.get(row) ? null : banned.get(row));
+        player.setExperience(nullExperiences.get(row) ? null : experiences[row]);
+        player.setLevel(nullLevels.get(row) ? null : levels[row]);
+        player.setUntilNextLevel(nullUntilNextLevels.get(row) ? null : untilNextLevels[row]);
+        return player;
+    }
+
+    private RowComparator comparator(PlayerOrder order) {
+        RowComparator byId = (row1, row2) -> Long.compare(ids[row1], ids[row2]);
+        switch (order) {
+            case NAME:
+                int[] nameRanks = names.ranks();
+                return (row1, row2) -> {
+                    int result = compareCodes(nameRanks, nameCodes[row1], nameCodes[row2]);
+                    return result != 0 ? result : byId.compare(row1, row2);
+                };
+            case EXPERIENCE:
+                return nullsFirstThenById(nullExperiences, experiences, byId);
+            case BIRTHDAY:
+                return nullsFirstThenById(nullBirthdays, birthdays, byId);
+            case LEVEL:
+                return nullsFirstThenById(nullLevels, levels, byId);
+            default:
+                return byId;
+        }
+    }
+
+    private static RowComparator nullsFirstThenById(RowBitmap nullRows, int[] column, RowComparator byId) {
+        return (row1, row2) -> {
+            boolean null1 = nullRows.get(row1);
+            boolean null2 = nullRows.get(row2);
+            int result = null1 || null2 ? Boolean.compare(null2, null1) : Integer.compare(column[row1], column[row2]);
+            return result != 0 ? result : byId.compare(row1, row2);
+        };
+    }
+
+    // NULL меньше любого значения, как в ORDER BY MySQL и H2
+    private static int compareCodes(int[] ranks, int code1, int code2) {
+        if (code1 == code2) {
+            return 0;
+        }
+        if (code1 == StringDictionary.NULL_CODE) {
+            return -1;
+        }
+        if (code2 == StringDictionary.NULL_CODE) {
+            return 1;
+        }
+        return Integer.compare(ranks[code1], ranks[code2]);
+    }
+
+    private static PlayerOrder getOrder(Sort sort) {
+        for (Sort.Order order : sort) {
+            for (PlayerOrder playerOrder : PlayerOrder.values()) {
+                if (playerOrder.getFieldName().equals(order.getProperty())) {
+                    return playerOrder;
+                }
+            }
+        }
+        return PlayerOrder.ID;
+    }
+
+    private void clear(int capacity) {
+        size = 0;
+        rowsInIdOrder = true;
+        this.capacity = capacity;
+        ids = new long[capacity];
+        versions = new long[capacity];
+        birthdays = new int[capacity];
+        experiences = new int[capacity];
+        levels = new int[capacity];
+        untilNextLevels = new int[capacity];
+        races = new byte[capacity];
+        professions = new byte[capacity];
+        nameCodes = new int[capacity];
+        titleCodes = new int[capacity];
+        banned = new RowBitmap(capacity);
+        nullBirthdays = new RowBitmap(capacity);
+        nullExperiences = new RowBitmap(capacity);
+        nullLevels = new RowBitmap(capacity);
+        nullUntilNextLevels = new RowBitmap(capacity);
+        nullBanned = new RowBitmap(capacity);
+        live = new RowBitmap(capacity);
+        raceRows = new RowBitmap[RACES.length];
+        for (int i = 0; i < raceRows.length; i++) {
+            raceRows[i] = new RowBitmap(capacity);
+        }
+        professionRows = new RowBitmap[PROFESSIONS.length];
+        for (int i = 0; i < professionRows.length; i++) {
+            professionRows[i] = new RowBitmap(capacity);
+        }
+        names = new StringDictionary(nameOrder);
+        titles = new StringDictionary();
+        rowsById = new HashMap<>();
+    }
+
+    private void grow(int capacity) {
+        this.capacity = capacity;
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        birthdays = Arrays.copyOf(birthdays, capacity);
+        experiences = Arrays.copyOf(experiences, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        untilNextLevels = Arrays.copyOf(untilNextLevels, capacity);
+        races = Arrays.copyOf(races, capacity);
+        professions = Arrays.copyOf(professions, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        titleCodes = Arrays.copyOf(titleCodes, capacity);
+        banned.grow(capacity);
+        nullBirthdays.grow(capacity);
+        nullExperiences.grow(capacity);
+        nullLevels.grow(capacity);
+        nullUntilNextLevels.grow(capacity);
+        nullBanned.grow(capacity);
+        live.grow(capacity);
+        for (RowBitmap rows : raceRows) {
+            rows.grow(capacity);
+        }
+        for (RowBitmap rows : professionRows) {
+            rows.grow(capacity);
+        }
+    }
+
+    /**
+     * План фильтра, составленный один раз на запрос: в него входят только заданные условия.
+     * race, profession, banned, name и title становятся битовыми картами, границы остальных полей -
+     * {@link RowCondition} над их столбцами, а строки с NULL в этих столбцах снимаются картами NULL.
+     * Границы дня рождения переводятся в даты так же, как в PlayerSpecifications.
+     * Массивы столбцов захватываются под блокировкой чтения и до ее снятия не меняются.
+     */
+    private final class RowFilter {
+
+        private final RowBitmap[] requiredRows;
+        // Карты, строки из которых не подходят: banned=true для banned=false и карты NULL
+        private final RowBitmap[] excludedRows;
+        private final RowCondition[] conditions;
+
+        RowFilter(PlayerFilter filter) {
+            List<RowBitmap> required = new ArrayList<>();
+            if (filter.getRace() != null) {
+                required.add(raceRows[filter.getRace().ordinal()]);
+            }
+            if (filter.getProfession() != null) {
+                required.add(professionRows[filter.getProfession().ordinal()]);
+            }
+            if (filter.getName() != null) {
+                required.add(names.rowsContainingIgnoreCase(filter.getName(), capacity));
+            }
+            if (filter.getTitle() != null) {
+                required.add(titles.rowsContainingIgnoreCase(filter.getTitle(), capacity));
+            }
+            if (Boolean.TRUE.equals(filter.isBanned())) {
+                required.add(banned);
+            }
+            requiredRows = required.toArray(new RowBitmap[0]);
+
+            List<RowBitmap> excluded = new ArrayList<>();
+            if (Boolean.FALSE.equals(filter.isBanned())) {
+                excluded.add(banned);
+            }
+            if (filter.isBanned() != null) {
+                excluded.add(nullBanned);
+            }
+            List<RowCondition> rowConditions = new ArrayList<>();
+            if (filter.getBirthdayAfter() != null || filter.getBirthdayBefore() != null) {
+                excluded.add(nullBirthdays);
+                rowConditions.add(RowCondition.intRange(birthdays,
+                        filter.getBirthdayAfter() == null ? Integer.MIN_VALUE
+                                : toDay(PlayerSpecifications.firstDateNotBefore(filter.getBirthdayAfter())),
+                        filter.getBirthdayBefore() == null ? Integer.MAX_VALUE
+                                : toDay(PlayerSpecifications.lastDateNotAfter(filter.getBirthdayBefore()))));
+            }
+            if (filter.getExperienceAfter() != null || filter.getExperienceBefore() != null) {
+                excluded.add(nullExperiences);
+                rowConditions.add(RowCondition.intRange(experiences,
+                        filter.getExperienceAfter() == null ? Integer.MIN_VALUE : filter.getExperienceAfter(),
+                        filter.getExperienceBefore() == null ? Integer.MAX_VALUE : filter.getExperienceBefore()));
+            }
+            if (filter.getLevelAfter() != null || filter.getLevelBefore() != null) {
+                excluded.add(nullLevels);
+                rowConditions.add(RowCondition.intRange(levels,
+                        filter.getLevelAfter() == null ? Integer.MIN_VALUE : filter.getLevelAfter(),
+                        filter.getLevelBefore() == null ? Integer.MAX_VALUE : filter.getLevelBefore()));
+            }
+            excludedRows = excluded.toArray(new RowBitmap[0]);
+            conditions = rowConditions.toArray(new RowCondition[0]);
+        }
+
+        // Граница за пределами int отсекает все даты или ни одной, как и min/max
+        private int toDay(Date date) {
+            long day = date.toLocalDate().toEpochDay();
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, day));
+        }
+
+        /**
+         * @return 64 строки, начиная с {@code wordIndex * 64}: живые и подходящие под race, profession, banned,
+         * name и title
+         */
+        long candidates(int wordIndex) {
+            long word = live.word(wordIndex);
+            for (RowBitmap rows : requiredRows) {
+                word &= rows.word(wordIndex);
+            }
+            for (RowBitmap rows : excludedRows) {
+                word &= ~rows.word(wordIndex);
+            }
+            return word;
+        }
+
+        // Есть ли условия, которые нужно проверять по строкам, а не по битовым картам
+        boolean hasRowConditions() {
+            return conditions.length > 0;
+        }
+
+        // Снимает со слова кандидатов строки, не подходящие под условия, не покрытые candidates
+        long retain(long word, int wordIndex) {
+            int firstRow = wordIndex << 6;
+            for (RowCondition condition : conditions) {
+                if (word == 0) {
+                    break;
+                }
+                word = condition.retain(word, firstRow);
+            }
+            return word;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.game.index;
+
+import java.util.Arrays;
+
+/**
+ * Битовая карта строк {@link PlayerColumnStore} поверх long[], растущая вместе со столбцами хранилища.
+ * Номера строк плотные, а каждое значение Race, Profession и banned покрывает заметную долю строк,
+ * поэтому сжатые контейнеры RoaringBitmap здесь все равно были бы битовыми, и хватает простого массива слов.
+ * В отличие от BitSet, слова доступны напрямую: пересечение нескольких карт считается по словам без копий.
+ */
+final class RowBitmap {
+
+    private long[] words;
+
+    RowBitmap(int capacity) {
+        words = new long[wordCount(capacity)];
+    }
+
+    static int wordCount(int capacity) {
+        return (capacity + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    void grow(int capacity) {
+        words = Arrays.copyOf(words, wordCount(capacity));
+    }
+
+    void set(int row, boolean value) {
+        if (value) {
+            words[row >>> 6] |= 1L << row;
+        } else {
+            words[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    boolean get(int row) {
+        return (words[row >>> 6] & (1L << row)) != 0;
+    }
+
+    long word(int index) {
+        return words[index];
+    }
+
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long cardinality() {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
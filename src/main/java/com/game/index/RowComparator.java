@@ -0,0 +1,10 @@
+package com.game.index;
+
+/**
+ * Сравнение строк колоночного хранилища по их номерам, без упаковки в объекты.
+ */
+@FunctionalInterface
+interface RowComparator {
+
+    int compare(int row1, int row2);
+}
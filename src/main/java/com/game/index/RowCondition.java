@@ -0,0 +1,48 @@
+package com.game.index;
+
+/**
+ * Диапазон значений числового столбца {@link PlayerColumnStore}, проверяемый сразу для слова из 64 строк:
+ * из слова снимаются биты строк вне диапазона. Условия создаются только для границ, заданных в фильтре,
+ * поэтому отсутствующие условия не стоят ничего. Все числовые столбцы, включая день рождения, хранятся
+ * в int[], реализация одна, и вызов {@link #retain} в цикле по условиям JIT встраивает.
+ */
+abstract class RowCondition {
+
+    /**
+     * @param word     строки {@code firstRow ... firstRow + 63}, которые еще подходят
+     * @param firstRow номер строки младшего бита
+     * @return те из них, что подходят и под это условие
+     */
+    abstract long retain(long word, int firstRow);
+
+    static RowCondition intRange(int[] column, int min, int max) {
+        return new IntRange(column, min, max);
+    }
+
+    private static final class IntRange extends RowCondition {
+
+        private final int[] column;
+        private final int min;
+        private final int max;
+
+        IntRange(int[] column, int min, int max) {
+            this.column = column;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        long retain(long word, int firstRow) {
+            long result = word;
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int value = column[firstRow + bit];
+                if (value < min || value > max) {
+                    result &= ~(1L << bit);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.game.index;
+
+import java.util.Arrays;
+
+/**
+ * Сортировка массива номеров строк слиянием: как и List.sort, устойчивая и O(n log n),
+ * но без упаковки int в Integer. Если нужны только первые строки, их отбирает {@code selectSmallest}
+ * за O(n log k) с памятью на k строк.
+ */
+final class RowSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private RowSort() {
+    }
+
+    static void sort(int[] rows, int from, int to, RowComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(rows, from, to, comparator);
+            return;
+        }
+        int[] buffer = new int[to - from];
+        mergeSort(rows, buffer, from, to, comparator);
+    }
+
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, RowComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(rows, from, to, comparator);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, middle, comparator);
+        mergeSort(rows, buffer, middle, to, comparator);
+        if (comparator.compare(rows[middle - 1], rows[middle]) <= 0) {
+            return;
+        }
+        merge(rows, buffer, from, middle, to, comparator);
+    }
+
+    // Хвост правой половины уже стоит на своем месте, поэтому в buffer собирается только все, что перед ним
+    private static void merge(int[] rows, int[] buffer, int from, int middle, int to, RowComparator comparator) {
+        int left = from;
+        int right = middle;
+        int out = 0;
+        while (left < middle && right < to) {
+            buffer[out++] = comparator.compare(rows[right], rows[left]) < 0 ? rows[right++] : rows[left++];
+        }
+        while (left < middle) {
+            buffer[out++] = rows[left++];
+        }
+        System.arraycopy(buffer, 0, rows, from, out);
+    }
+
+    private static void insertionSort(int[] rows, int from, int to, RowComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int row = rows[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(rows[j], row) > 0) {
+                rows[j + 1] = rows[j];
+                j--;
+            }
+            rows[j + 1] = row;
+        }
+    }
+
+    /**
+     * Ставит в начало {@code rows} по порядку {@code k} наименьших из первых {@code found} строк:
+     * куча из k строк с наибольшей наверху вытесняет наибольшую, когда находится строка меньше нее.
+     * Порядок должен быть полным (с разбором равных по ID), тогда результат совпадает с полной сортировкой.
+     */
+    static void selectSmallest(int[] rows, int found, int k, RowComparator comparator) {
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < found; i++) {
+            int row = rows[i];
+            if (size < k) {
+                heap[size] = row;
+                siftUp(heap, size++, comparator);
+            } else if (comparator.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(heap, size, comparator);
+            }
+        }
+        sort(heap, 0, size, comparator);
+        System.arraycopy(heap, 0, rows, 0, size);
+    }
+
+    /**
+     * То же по ключам, по одному: куча из {@code heap.length} наименьших ключей занимает начало {@code heap}.
+     * Сравниваются сами long, без обращения к столбцам. Номер строки должен занимать младшие 32 бита ключа.
+     *
+     * @return новый размер кучи
+     */
+    static int offer(long[] heap, int size, long key) {
+        if (size < heap.length) {
+            heap[size] = key;
+            siftUp(heap, size);
+            return size + 1;
+        }
+        if (key < heap[0]) {
+            heap[0] = key;
+            siftDown(heap, size);
+        }
+        return size;
+    }
+
+    private static void siftUp(int[] heap, int index, RowComparator comparator) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (comparator.compare(heap[parent], row) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private static void siftDown(int[] heap, int size, RowComparator comparator) {
+        int row = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(row, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (key >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
@@ -0,0 +1,200 @@
+package com.game.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Словарь строк столбца: каждая различная строка хранится один раз вместе с ее версией в нижнем регистре,
+ * а строки таблицы ссылаются на нее кодом. Для поиска подстроки словарь ведет два инвертированных индекса:
+ * триграмма значения в нижнем регистре -> коды значений с ней и код -> строки таблицы с этим значением.
+ * Подстрока из трех и более символов проверяется только у значений из самого короткого списка своих
+ * триграмм, и в результат попадают только их строки. Коды не переиспользуются; значения, на которые
+ * уже никто не ссылается, остаются в словаре до перезагрузки {@link PlayerColumnStore}.
+ */
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final Map<Long, IntList> codesByTrigram = new HashMap<>();
+    private String[] values = new String[64];
+    private String[] lowerCaseValues = new String[64];
+    private IntList[] rowsByCode = new IntList[64];
+    private int size;
+    private final Comparator<String> order;
+    // Места значений в порядке order; пересчитываются при первой сортировке после добавления
+    private volatile int[] ranks;
+
+    StringDictionary() {
+        this(Comparator.naturalOrder());
+    }
+
+    /**
+     * @param order порядок значений для {@link #ranks()}; значения, равные в нем, получают одно место
+     */
+    StringDictionary(Comparator<String> order) {
+        this.order = order;
+    }
+
+    /**
+     * Вызывается только под блокировкой записи {@link PlayerColumnStore}.
+     */
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            lowerCaseValues = Arrays.copyOf(lowerCaseValues, size * 2);
+            rowsByCode = Arrays.copyOf(rowsByCode, size * 2);
+        }
+        String lowerCaseValue = value.toLowerCase();
+        values[size] = value;
+        lowerCaseValues[size] = lowerCaseValue;
+        rowsByCode[size] = new IntList();
+        codes.put(value, size);
+        // Код новый, а триграммы различны, поэтому повторов в списках нет
+        for (long trigram : trigrams(lowerCaseValue)) {
+            codesByTrigram.computeIfAbsent(trigram, key -> new IntList()).add(size);
+        }
+        ranks = null;
+        return size++;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    /**
+     * Вызывается только под блокировкой записи {@link PlayerColumnStore}, когда строка таблицы
+     * получает значение с кодом {@code code} или теряет его.
+     */
+    void addRow(int code, int row) {
+        if (code != NULL_CODE) {
+            rowsByCode[code].add(row);
+        }
+    }
+
+    void removeRow(int code, int row) {
+        if (code != NULL_CODE) {
+            rowsByCode[code].remove(row);
+        }
+    }
+
+    /**
+     * @return строки таблицы, значение которых содержит {@code needle} без учета регистра, как LIKE по lower() в БД
+     */
+    RowBitmap rowsContainingIgnoreCase(String needle, int capacity) {
+        String lowerCaseNeedle = needle.toLowerCase();
+        RowBitmap rows = new RowBitmap(capacity);
+        if (lowerCaseNeedle.length() < GRAM_LENGTH) {
+            // Короткой подстроке триграммы не помогут, значения словаря проверяются все, но по одному разу
+            for (int code = 0; code < size; code++) {
+                addRowsIfContains(code, lowerCaseNeedle, rows);
+            }
+            return rows;
+        }
+
+        // Значение с подстрокой содержит все ее триграммы, поэтому хватает проверить самый короткий список
+        IntList candidates = null;
+        for (long trigram : trigrams(lowerCaseNeedle)) {
+            IntList trigramCodes = codesByTrigram.get(trigram);
+            if (trigramCodes == null) {
+                return rows;
+            }
+            if (candidates == null || trigramCodes.size < candidates.size) {
+                candidates = trigramCodes;
+            }
+        }
+        for (int i = 0; i < candidates.size; i++) {
+            addRowsIfContains(candidates.values[i], lowerCaseNeedle, rows);
+        }
+        return rows;
+    }
+
+    /**
+     * @return по коду - место значения среди всех значений словаря; сравнение мест равносильно сравнению строк
+     */
+    int[] ranks() {
+        int[] result = ranks;
+        if (result == null) {
+            synchronized (this) {
+                result = ranks;
+                if (result == null) {
+                    result = computeRanks();
+                    ranks = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addRowsIfContains(int code, String lowerCaseNeedle, RowBitmap rows) {
+        if (lowerCaseValues[code].contains(lowerCaseNeedle)) {
+            IntList codeRows = rowsByCode[code];
+            for (int i = 0; i < codeRows.size; i++) {
+                rows.set(codeRows.values[i], true);
+            }
+        }
+    }
+
+    // Различные триграммы строки, три символа упакованы в long
+    private static Set<Long> trigrams(String value) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            trigrams.add(((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private int[] computeRanks() {
+        Integer[] byValue = new Integer[size];
+        for (int code = 0; code < size; code++) {
+            byValue[code] = code;
+        }
+        Arrays.sort(byValue, (a, b) -> order.compare(values[a], values[b]));
+        int[] result = new int[size];
+        int rank = 0;
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && order.compare(values[byValue[i - 1]], values[byValue[i]]) != 0) {
+                rank++;
+            }
+            result[byValue[i]] = rank;
+        }
+        return result;
+    }
+
+    // Растущий массив int: номера строк у кода, коды у триграммы
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Порядок не важен: на место удаленного переносится последний элемент
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
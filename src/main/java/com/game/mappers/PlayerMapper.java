@@ -25,6 +25,7 @@ public class PlayerMapper {
         playerDto.setLevel(entity.getLevel());
         playerDto.setUntilNextLevel(entity.getUntilNextLevel());
         playerDto.setTitle(entity.getTitle());
+        playerDto.setVersion(entity.getVersion());
 
         return playerDto;
     }
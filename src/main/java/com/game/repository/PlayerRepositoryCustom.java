@@ -0,0 +1,48 @@
+package com.game.repository;
+
+import com.game.dto.PlayerDto;
+import com.game.dto.PlayerFacetDto;
+import com.game.entity.PlayerEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PlayerRepositoryCustom {
+
+    /**
+     * В отличие от {@code findAll(Specification, Pageable)} не выполняет дополнительный
+     * COUNT-запрос: сортировка и LIMIT/OFFSET уходят в БД одним запросом.
+     * DTO создаются конструктором прямо из строк результата, без управляемых сущностей.
+     * Результат кэшируется в кэше запросов Hibernate.
+     */
+    List<PlayerDto> findPlayerDtos(Specification<PlayerEntity> specification, Pageable pageable);
+
+    /**
+     * Тот же запрос, что и {@link #findPlayerDtos}, но строки читаются курсором порциями по {@code fetchSize}
+     * и не попадают в кэш запросов. Поток нужно закрыть внутри транзакции.
+     */
+    Stream<PlayerDto> streamPlayerDtos(Specification<PlayerEntity> specification, Pageable pageable, int fetchSize);
+
+    /**
+     * SELECT COUNT(*) ... WHERE, результат кэшируется в кэше запросов Hibernate.
+     */
+    long countMatching(Specification<PlayerEntity> specification);
+
+    /**
+     * SELECT race, profession, banned, COUNT(*) ... WHERE ... GROUP BY race, profession, banned:
+     * только непустые комбинации, результат кэшируется в кэше запросов Hibernate.
+     */
+    List<PlayerFacetDto> countFacets(Specification<PlayerEntity> specification);
+
+    /**
+     * UPDATE ... SET experience = experience + amount ... WHERE одним запросом: опыт не превышает
+     * {@code maxExperience}, level и untilNextLevel считаются в БД по той же формуле, что и при записи
+     * одного игрока, version увеличивается. Игроки с опытом {@code maxExperience} не затрагиваются. Сущности не загружаются; Hibernate после запроса очищает
+     * регион игроков в кэше второго уровня и кэш запросов по таблице.
+     *
+     * @return число измененных строк
+     */
+    int addExperience(Specification<PlayerEntity> specification, int amount, int maxExperience);
+}
@@ -0,0 +1,158 @@
+package com.game.repository;
+
+import com.game.dto.PlayerDto;
+import com.game.dto.PlayerFacetDto;
+import com.game.entity.PlayerEntity;
+import org.hibernate.CacheMode;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+import static org.hibernate.annotations.QueryHints.CACHE_MODE;
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class PlayerRepositoryCustomImpl implements PlayerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Read-only транзакция здесь, а не в сервисе: сервис может ответить из колоночного хранилища без соединения
+    @Override
+    @Transactional(readOnly = true)
+    public List<PlayerDto> findPlayerDtos(Specification<PlayerEntity> specification, Pageable pageable) {
+        return createPlayerDtoQuery(specification, pageable)
+                .setHint(CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<PlayerDto> streamPlayerDtos(Specification<PlayerEntity> specification, Pageable pageable, int fetchSize) {
+        return createPlayerDtoQuery(specification, pageable)
+                .setHint(FETCH_SIZE, fetchSize)
+                .setHint(CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream();
+    }
+
+    // SELECT new PlayerDto(...): строки результата сразу превращаются в DTO, минуя контекст персистентности
+    private TypedQuery<PlayerDto> createPlayerDtoQuery(Specification<PlayerEntity> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PlayerDto> query = cb.createQuery(PlayerDto.class);
+        Root<PlayerEntity> root = query.from(PlayerEntity.class);
+
+        query.select(cb.construct(PlayerDto.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("title"),
+                root.get("race"),
+                root.get("profession"),
+                root.get("birthday"),
+                root.get("banned"),
+                root.get("experience"),
+                root.get("level"),
+                root.get("untilNextLevel"),
+                root.get("version")));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<PlayerDto> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countMatching(Specification<PlayerEntity> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<PlayerEntity> root = query.from(PlayerEntity.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+
+        return entityManager.createQuery(query)
+                .setHint(CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PlayerFacetDto> countFacets(Specification<PlayerEntity> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PlayerFacetDto> query = cb.createQuery(PlayerFacetDto.class);
+        Root<PlayerEntity> root = query.from(PlayerEntity.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.construct(PlayerFacetDto.class,
+                root.get("race"),
+                root.get("profession"),
+                root.get("banned"),
+                cb.count(root)));
+        query.groupBy(root.get("race"), root.get("profession"), root.get("banned"));
+
+        return entityManager.createQuery(query)
+                .setHint(CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int addExperience(Specification<PlayerEntity> specification, int amount, int maxExperience) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<PlayerEntity> update = cb.createCriteriaUpdate(PlayerEntity.class);
+        Root<PlayerEntity> root = update.from(PlayerEntity.class);
+        Path<Integer> experience = root.get("experience");
+
+        Expression<Integer> newExperience = cb.<Integer>selectCase()
+                .when(cb.greaterThan(experience, maxExperience - amount), maxExperience)
+                .otherwise(cb.sum(experience, amount));
+        // level = ((int) sqrt(2500 + 200 * experience) - 50) / 100. Корень не меньше 50,
+        // поэтому floor отбрасывает дробную часть так же, как приведение к int
+        Expression<Double> wholeRoot = cb.function("floor", Double.class,
+                cb.sqrt(cb.sum(cb.prod(newExperience, 200), 2500)));
+        Expression<Integer> newLevel = cb.function("floor", Double.class,
+                cb.quot(cb.diff(wholeRoot, 50.0), 100.0)).as(Integer.class);
+        Expression<Integer> newUntilNextLevel = cb.diff(
+                cb.prod(cb.prod(cb.sum(newLevel, 1), cb.sum(newLevel, 2)), 50), newExperience);
+
+        // experience присваивается последним: MySQL вычисляет SET слева направо и видит уже присвоенные значения
+        update.set(root.<Integer>get("level"), newLevel);
+        update.set(root.<Integer>get("untilNextLevel"), newUntilNextLevel);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        update.set(experience, newExperience);
+
+        // Условия byFilter строятся только из root и cb, запрос им не нужен
+        // Игроки, у которых опыт уже максимальный, не меняются: их версия и число измененных строк остаются прежними
+        Predicate belowMax = cb.lessThan(experience, maxExperience);
+        Predicate predicate = specification.toPredicate(root, null, cb);
+        update.where(predicate == null ? belowMax : cb.and(predicate, belowMax));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
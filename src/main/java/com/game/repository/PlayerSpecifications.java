@@ -0,0 +1,140 @@
+package com.game.repository;
+
+import com.game.controller.PlayerCursor;
+import com.game.controller.PlayerFilter;
+import com.game.entity.PlayerEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Переводит {@link PlayerFilter} в условие WHERE, чтобы фильтрация выполнялась в БД.
+ * Семантика совпадает с прежними Java-предикатами: поиск по имени и титулу -
+ * регистронезависимый contains, все min/max границы включительные.
+ */
+public final class PlayerSpecifications {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private PlayerSpecifications() {
+    }
+
+    public static Specification<PlayerEntity> byFilter(PlayerFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getName() != null) {
+                predicates.add(containsIgnoreCase(cb, root.get("name"), filter.getName()));
+            }
+            if (filter.getTitle() != null) {
+                predicates.add(containsIgnoreCase(cb, root.get("title"), filter.getTitle()));
+            }
+            if (filter.isBanned() != null) {
+                predicates.add(cb.equal(root.get("banned"), filter.isBanned()));
+            }
+            if (filter.getBirthdayAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("birthday"), firstDateNotBefore(filter.getBirthdayAfter())));
+            }
+            if (filter.getBirthdayBefore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("birthday"), lastDateNotAfter(filter.getBirthdayBefore())));
+            }
+            if (filter.getRace() != null) {
+                predicates.add(cb.equal(root.get("race"), filter.getRace()));
+            }
+            if (filter.getProfession() != null) {
+                predicates.add(cb.equal(root.get("profession"), filter.getProfession()));
+            }
+            if (filter.getExperienceAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("experience"), filter.getExperienceAfter()));
+            }
+            if (filter.getExperienceBefore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("experience"), filter.getExperienceBefore()));
+            }
+            if (filter.getLevelAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("level"), filter.getLevelAfter()));
+            }
+            if (filter.getLevelBefore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("level"), filter.getLevelBefore()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Условие keyset-пагинации: строки строго после позиции курсора в порядке (ключ, ID).
+     */
+    public static Specification<PlayerEntity> after(PlayerCursor cursor) {
+        return (root, query, cb) -> {
+            Predicate idAfter = cb.greaterThan(root.get("id"), cursor.getLastId());
+            switch (cursor.getOrder()) {
+                case NAME:
+                    return seek(cb, root.get("name"), cursor.getLastKey(), idAfter);
+                case BIRTHDAY:
+                    return seek(cb, root.get("birthday"), new Date(cursor.getLastKeyAsLong()), idAfter);
+                case EXPERIENCE:
+                    return seek(cb, root.get("experience"), cursor.getLastKeyAsInteger(), idAfter);
+                case LEVEL:
+                    return seek(cb, root.get("level"), cursor.getLastKeyAsInteger(), idAfter);
+                default:
+                    return idAfter;
+            }
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate seek(CriteriaBuilder cb, Path<T> key, T lastKey,
+                                                                    Predicate idAfter) {
+        return cb.or(cb.greaterThan(key, lastKey), cb.and(cb.equal(key, lastKey), idAfter));
+    }
+
+    private static Predicate containsIgnoreCase(CriteriaBuilder cb, Expression<String> field, String value) {
+        String pattern = "%" + escapeLike(value.toLowerCase()) + "%";
+        return cb.like(cb.lower(field), pattern, LIKE_ESCAPE);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                result.append(LIKE_ESCAPE);
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    /**
+     * День рождения хранится как DATE, а в DTO отдается полночь этого дня в миллисекундах.
+     * Поэтому "birthday >= after" - это первая дата, полночь которой не раньше after...
+     */
+    public static Date firstDateNotBefore(long millis) {
+        LocalDate date = toLocalDate(millis);
+        if (Date.valueOf(date).getTime() < millis) {
+            date = date.plusDays(1);
+        }
+        return Date.valueOf(date);
+    }
+
+    /**
+     * ...а "birthday <= before" - последняя дата, полночь которой не позже before.
+     */
+    public static Date lastDateNotAfter(long millis) {
+        return Date.valueOf(toLocalDate(millis));
+    }
+
+    /**
+     * @return дата, которую сохранит столбец DATE для дня рождения {@code millis}
+     */
+    public static LocalDate toLocalDate(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
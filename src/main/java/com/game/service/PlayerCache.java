@@ -0,0 +1,85 @@
+package com.game.service;
+
+import com.game.dto.PlayerDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш игроков по ID.
+ */
+@Component
+public class PlayerCache {
+
+    private final Cache<Long, PlayerDto> cache;
+
+    public PlayerCache(
+            @Value("${player.cache.maximumSize:10000}") long maximumSize,
+            @Value("${player.cache.expireAfterWriteSeconds:300}") long expireAfterWriteSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return игрок из кэша или загруженный {@code loader}; null от загрузчика не кэшируется
+     */
+    public PlayerDto get(long playerId, Function<Long, PlayerDto> loader) {
+        return cache.get(playerId, loader);
+    }
+
+    /**
+     * Удаляет игрока сразу и, если идет транзакция, еще раз после ее завершения:
+     * иначе параллельное чтение могло бы успеть закэшировать еще не измененную строку.
+     */
+    public void invalidate(long playerId) {
+        cache.invalidate(playerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(playerId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Как {@link #invalidate}, но для всех игроков.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    public Map<String, Number> getSnapshot() {
+        CacheStats stats = cache.stats();
+
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("size", cache.estimatedSize());
+        snapshot.put("hitCount", stats.hitCount());
+        snapshot.put("missCount", stats.missCount());
+        snapshot.put("hitRate", stats.hitRate());
+        snapshot.put("evictionCount", stats.evictionCount());
+        snapshot.put("loadFailureCount", stats.loadFailureCount());
+        snapshot.put("averageLoadPenaltyMicros", TimeUnit.NANOSECONDS.toMicros((long) stats.averageLoadPenalty()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,40 @@
+package com.game.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Счетчик изменений таблицы player, сделанных через PlayerService. Пока он не изменился,
+ * списки и количество игроков остаются прежними, и их можно не перечитывать из БД.
+ * <p>
+ * Как и PlayerCache, счетчик живет в памяти экземпляра: изменения в обход сервиса он не видит.
+ * Момент запуска входит в значение, чтобы после перезапуска старые значения не совпали с новыми.
+ */
+@Component
+public class PlayerChangeCounter {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong changes = new AtomicLong();
+
+    public String current() {
+        return epoch + "-" + changes.get();
+    }
+
+    /**
+     * Увеличивает счетчик сразу и, если идет транзакция, еще раз после ее завершения:
+     * иначе значение, прочитанное до фиксации, осталось бы привязанным к новым данным.
+     */
+    public void increment() {
+        changes.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    changes.incrementAndGet();
+                }
+            });
+        }
+    }
+}
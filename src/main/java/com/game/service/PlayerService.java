@@ -1,67 +1,181 @@
 package com.game.service;
 
+import com.game.controller.PlayerCursor;
+import com.game.controller.PlayerFilter;
+import com.game.controller.PlayerListStage;
+import com.game.dto.BatchResultDto;
 import com.game.dto.PlayerDto;
+import com.game.dto.PlayerFacetDto;
 import com.game.entity.PlayerEntity;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import com.game.index.PlayerColumnStore;
 import com.game.mappers.PlayerMapper;
 import com.game.repository.PlayerRepository;
+import com.game.repository.PlayerSpecifications;
 import com.game.service.exceptions.PlayerNotFoundException;
+import com.game.service.exceptions.PlayerVersionMismatchException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
-import javax.persistence.EntityNotFoundException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
 import java.util.List;
 
 @Service
 public class PlayerService {
 
+    public static final int MAX_EXPERIENCE = 10_000_000;
+
     private final PlayerMapper playerMapper;
     private final PlayerRepository playerRepository;
+    private final PlayerCache playerCache;
+    private final PlayerChangeCounter changeCounter;
+    private final PlayerColumnStore columnStore;
+    private final Timer dbFetchTimer;
+    private final boolean columnar;
+    private final int batchSize;
+    private final int streamFetchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     public PlayerService(
             PlayerMapper playerMapper,
-            PlayerRepository playerRepository) {
+            PlayerRepository playerRepository,
+            PlayerCache playerCache,
+            PlayerChangeCounter changeCounter,
+            PlayerColumnStore columnStore,
+            MeterRegistry meterRegistry,
+            @Value("${players.query.engine:database}") String queryEngine,
+            @Value("${hibernate.jdbc.batch_size:50}") int batchSize,
+            @Value("${db.stream.fetchSize:500}") int streamFetchSize) {
         this.playerMapper = playerMapper;
         this.playerRepository = playerRepository;
+        this.playerCache = playerCache;
+        this.changeCounter = changeCounter;
+        this.columnStore = columnStore;
+        this.dbFetchTimer = PlayerListStage.DB_FETCH.timer(meterRegistry);
+        this.columnar = isColumnar(queryEngine);
+        this.batchSize = batchSize;
+        this.streamFetchSize = streamFetchSize;
     }
 
-    @Transactional
+    // Без транзакции: попадание в кэш не должно занимать соединение с БД
     public PlayerDto getPlayer(long playerId) {
-        try {
-            PlayerEntity playerEntity = playerRepository.getOne(playerId);
-            return playerMapper.mapEntityToDto(playerEntity);
-        } catch (EntityNotFoundException e) {
+        PlayerDto player = playerCache.get(playerId, this::loadPlayer);
+        if (player == null) {
             throw new PlayerNotFoundException(String.valueOf(playerId));
         }
+        return player;
     }
 
-    @Transactional
+    private PlayerDto loadPlayer(long playerId) {
+        return playerRepository.findById(playerId)
+                .map(playerMapper::mapEntityToDto)
+                .orElse(null);
+    }
+
+    // Списки читаются проекцией в PlayerDto: сущности не создаются, а в read-only транзакции
+    // Hibernate не делает flush и не хранит снимки для dirty checking
+    @Transactional(readOnly = true)
     public List<PlayerDto> getAllPlayers() {
-        List<PlayerEntity> playerEntities = playerRepository.findAll();
-        return playerMapper.mapEntityListToDtoList(playerEntities);
+        return playerRepository.findPlayerDtos(Specification.where(null), Pageable.unpaged());
+    }
+
+    private static boolean isColumnar(String queryEngine) {
+        switch (queryEngine) {
+            case "database":
+                return false;
+            case "columnar":
+                return true;
+            default:
+                throw new IllegalStateException("Unknown players.query.engine: " + queryEngine);
+        }
     }
 
+    // Без транзакции, как и getPlayer: колоночное хранилище отвечает без соединения с БД,
+    // а запросы к БД открывают read-only транзакцию в репозитории
+    public List<PlayerDto> getPlayers(PlayerFilter filter, Pageable pageable) {
+        if (columnar) {
+            return columnStore.find(filter, pageable);
+        }
+        return dbFetchTimer.record(() -> playerRepository.findPlayerDtos(PlayerSpecifications.byFilter(filter), pageable));
+    }
+
+    /**
+     * Передаёт игроков в {@code action} по одному, читая их из БД курсором.
+     * Строки сразу превращаются в DTO и не накапливаются в контексте персистентности,
+     * поэтому расход памяти не зависит от размера выборки.
+     */
+    @Transactional(readOnly = true)
+    public void forEachPlayer(PlayerFilter filter, Pageable pageable, Consumer<PlayerDto> action) {
+        Specification<PlayerEntity> specification = PlayerSpecifications.byFilter(filter);
+        try (Stream<PlayerDto> players = playerRepository.streamPlayerDtos(specification, pageable, streamFetchSize)) {
+            players.forEach(action);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<PlayerDto> getPlayersAfter(PlayerFilter filter, PlayerCursor cursor, Pageable pageable) {
+        Specification<PlayerEntity> specification = PlayerSpecifications.byFilter(filter);
+        if (cursor != null) {
+            specification = specification.and(PlayerSpecifications.after(cursor));
+        }
+        Specification<PlayerEntity> pageSpecification = specification;
+        return dbFetchTimer.record(() -> playerRepository.findPlayerDtos(pageSpecification, pageable));
+    }
+
+    /**
+     * @param expectedVersions версии, от которых клиент готов применить изменения, или null без проверки.
+     *                         Если текущая версия не из них, бросает PlayerVersionMismatchException, ничего не меняя.
+     *                         Запись, изменившаяся уже после чтения, отклоняется Hibernate по @Version
+     */
     @Transactional
-    public PlayerDto changePlayer(PlayerDto playerDtoWithNewData) {
+    public PlayerDto changePlayer(PlayerDto playerDtoWithNewData, Collection<Long> expectedVersions) {
         // Получаем игрока из хранилища
         long playerId = playerDtoWithNewData.getId();
         Optional<PlayerEntity> sourcePlayerEntityOptional = playerRepository.findById(playerId);
         PlayerEntity sourcePlayerEntity = sourcePlayerEntityOptional.orElseThrow(() -> new PlayerNotFoundException(String.valueOf(playerId)));
+        if (expectedVersions != null && !expectedVersions.contains(sourcePlayerEntity.getVersion())) {
+            throw new PlayerVersionMismatchException(playerId, sourcePlayerEntity.getVersion());
+        }
         // Обновляем данные по игроку
         playerMapper.mapDtoToSourceEntity(playerDtoWithNewData, sourcePlayerEntity);
         setupPlayerLevelToEntity(playerDtoWithNewData, sourcePlayerEntity);
         // Сохраняем и возвращаем
-        PlayerEntity updatedPlayerEntity = playerRepository.save(sourcePlayerEntity);
-        return playerMapper.mapEntityToDto(updatedPlayerEntity);
+        // flush до маппинга: Hibernate увеличивает версию при записи в БД
+        PlayerEntity updatedPlayerEntity = playerRepository.saveAndFlush(sourcePlayerEntity);
+        playerCache.invalidate(playerId);
+        changeCounter.increment();
+        PlayerDto updatedPlayer = playerMapper.mapEntityToDto(updatedPlayerEntity);
+        columnStore.update(Collections.singletonList(updatedPlayer));
+        return updatedPlayer;
     }
 
     @Transactional
     public void deletePlayer(long playerId) {
         try {
             playerRepository.deleteById(playerId);
+            playerCache.invalidate(playerId);
+            changeCounter.increment();
+            columnStore.remove(playerId);
         } catch (EmptyResultDataAccessException e) {
             throw new PlayerNotFoundException(String.valueOf(playerId));
         }
@@ -74,8 +188,92 @@ public class PlayerService {
         setupPlayerLevelToEntity(newPlayerDto, newPlayerEntity);
         // Сохранение сущности в хранилище
         PlayerEntity resultEntity = playerRepository.save(newPlayerEntity);
+        playerCache.invalidate(resultEntity.getId());
+        changeCounter.increment();
+        PlayerDto createdPlayer = playerMapper.mapEntityToDto(resultEntity);
+        columnStore.update(Collections.singletonList(createdPlayer));
         // Возврат результата
-        return playerMapper.mapEntityToDto(resultEntity);
+        return createdPlayer;
+    }
+
+    /**
+     * Массовое создание (DTO без ID) и обновление (DTO с ID) игроков.
+     * Сущности сбрасываются в БД JDBC-пакетами по {@code batchSize} штук, после чего контекст
+     * персистентности очищается, чтобы память не росла с размером импорта.
+     */
+    @Transactional
+    public BatchResultDto savePlayers(List<PlayerDto> playerDtos) {
+        int created = 0;
+        int updated = 0;
+        changeCounter.increment();
+
+        for (int from = 0; from < playerDtos.size(); from += batchSize) {
+            List<PlayerDto> chunk = playerDtos.subList(from, Math.min(from + batchSize, playerDtos.size()));
+            Map<Long, PlayerEntity> sourceEntities = findSourceEntities(chunk);
+            List<PlayerEntity> savedEntities = new ArrayList<>(chunk.size());
+
+            for (PlayerDto playerDto : chunk) {
+                if (playerDto.hasId()) {
+                    PlayerEntity sourceEntity = sourceEntities.get(playerDto.getId());
+                    if (sourceEntity == null) {
+                        throw new PlayerNotFoundException(String.valueOf(playerDto.getId()));
+                    }
+                    playerMapper.mapDtoToSourceEntity(playerDto, sourceEntity);
+                    setupPlayerLevelToEntity(playerDto, sourceEntity);
+                    playerCache.invalidate(playerDto.getId());
+                    savedEntities.add(sourceEntity);
+                    updated++;
+                } else {
+                    PlayerEntity newPlayerEntity = playerMapper.mapDtoToNewEntity(playerDto);
+                    setupPlayerLevelToEntity(playerDto, newPlayerEntity);
+                    entityManager.persist(newPlayerEntity);
+                    savedEntities.add(newPlayerEntity);
+                    created++;
+                }
+            }
+
+            entityManager.flush();
+            // После flush у сущностей уже новые версии и ID
+            columnStore.update(playerMapper.mapEntityListToDtoList(savedEntities));
+            entityManager.clear();
+        }
+
+        return new BatchResultDto(created, updated);
+    }
+
+    /**
+     * Добавляет {@code amount} опыта всем подходящим под фильтр игрокам, но не больше {@link #MAX_EXPERIENCE},
+     * и пересчитывает их уровни. Выполняется одним UPDATE в БД без загрузки игроков. Колоночное хранилище
+     * после фиксации сбрасывается и загрузится заново следующим запросом.
+     *
+     * @return число измененных игроков
+     */
+    @Transactional
+    public int grantExperience(PlayerFilter filter, int amount) {
+        int updated = playerRepository.addExperience(PlayerSpecifications.byFilter(filter), amount, MAX_EXPERIENCE);
+        if (updated > 0) {
+            playerCache.invalidateAll();
+            changeCounter.increment();
+            columnStore.invalidateAfterCommit();
+        }
+        return updated;
+    }
+
+    private Map<Long, PlayerEntity> findSourceEntities(List<PlayerDto> playerDtos) {
+        List<Long> ids = new ArrayList<>();
+        for (PlayerDto playerDto : playerDtos) {
+            if (playerDto.hasId()) {
+                ids.add(playerDto.getId());
+            }
+        }
+
+        Map<Long, PlayerEntity> result = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (PlayerEntity playerEntity : playerRepository.findAllById(ids)) {
+                result.put(playerEntity.getId(), playerEntity);
+            }
+        }
+        return result;
     }
 
     private void setupPlayerLevelToEntity(final PlayerDto playerDto, PlayerEntity playerEntity) {
@@ -93,8 +291,48 @@ public class PlayerService {
         playerEntity.setUntilNextLevel(untilNextLevel);
     }
 
-    public int getAllPlayersCount() {
-        return getAllPlayers().size();
+    @Transactional(readOnly = true)
+    public long getAllPlayersCount() {
+        return playerRepository.count();
+    }
+
+    // SELECT COUNT(*) ... WHERE без загрузки сущностей или подсчет по колоночному хранилищу
+    public long getPlayersCount(PlayerFilter filter) {
+        if (columnar) {
+            return columnStore.count(filter);
+        }
+        return playerRepository.countMatching(PlayerSpecifications.byFilter(filter));
+    }
+
+    /**
+     * Число подходящих под фильтр игроков в каждой комбинации race x profession x banned, включая нулевые,
+     * в порядке объявления Race и Profession. Колоночное хранилище считает их пересечениями битовых карт,
+     * БД - одним GROUP BY.
+     */
+    public List<PlayerFacetDto> getPlayerFacets(PlayerFilter filter) {
+        long[] counts;
+        if (columnar) {
+            counts = columnStore.facetCounts(filter);
+        } else {
+            counts = new long[PlayerColumnStore.FACET_COUNT];
+            for (PlayerFacetDto facet : playerRepository.countFacets(PlayerSpecifications.byFilter(filter))) {
+                if (facet.getRace() != null && facet.getProfession() != null) {
+                    counts[PlayerColumnStore.facetIndex(facet.getRace().ordinal(), facet.getProfession().ordinal(),
+                            facet.isBanned())] += facet.getCount();
+                }
+            }
+        }
+
+        List<PlayerFacetDto> facets = new ArrayList<>(PlayerColumnStore.FACET_COUNT);
+        for (Race race : Race.values()) {
+            for (Profession profession : Profession.values()) {
+                for (boolean banned : new boolean[]{false, true}) {
+                    long count = counts[PlayerColumnStore.facetIndex(race.ordinal(), profession.ordinal(), banned)];
+                    facets.add(new PlayerFacetDto(race, profession, banned, count));
+                }
+            }
+        }
+        return facets;
     }
 
     private int calculateLevel(int experience) {
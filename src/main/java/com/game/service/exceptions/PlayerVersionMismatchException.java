@@ -0,0 +1,8 @@
+package com.game.service.exceptions;
+
+public class PlayerVersionMismatchException extends RuntimeException {
+
+  public PlayerVersionMismatchException(long playerId, long version) {
+    super(String.format("Player with ID %d has version %d", playerId, version));
+  }
+}
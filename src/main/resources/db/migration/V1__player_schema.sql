@@ -0,0 +1,26 @@
+-- Исходная схема (как в init.sql). IF NOT EXISTS - чтобы базы, созданные init.sql до появления
+-- миграций, проходили эту версию без изменений.
+CREATE TABLE IF NOT EXISTS player
+(
+    id             BIGINT(20)  NOT NULL AUTO_INCREMENT,
+    name           VARCHAR(12) NULL,
+    title          VARCHAR(30) NULL,
+    race           VARCHAR(20) NULL,
+    profession     VARCHAR(20) NULL,
+    birthday       DATE        NULL,
+    banned         BIT(1)      NULL,
+    experience     INT(10)     NULL,
+    level          INT(3)      NULL,
+    untilNextLevel INT(10)     NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS player_seq
+(
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO player_seq(next_val)
+SELECT COALESCE(MAX(id), 0) + 1
+FROM player
+WHERE NOT EXISTS(SELECT next_val FROM player_seq);
@@ -0,0 +1,18 @@
+-- Индексы под частые комбинации PlayerFilter и PlayerOrder.
+-- Проверка покрытия: mvn -Pbenchmark test-compile exec:java@index-report
+
+-- race/profession - равенства, banned/experience/birthday - последний столбец для равенства или диапазона
+CREATE INDEX idx_player_race_profession_banned ON player (race, profession, banned);
+CREATE INDEX idx_player_race_profession_experience ON player (race, profession, experience);
+CREATE INDEX idx_player_race_profession_birthday ON player (race, profession, birthday);
+CREATE INDEX idx_player_profession ON player (profession);
+
+-- banned + minLevel/maxLevel
+CREATE INDEX idx_player_banned_level ON player (banned, level);
+
+-- Сортировка по PlayerOrder (ORDER BY key, id и keyset-пагинация по курсору) и одиночные диапазоны.
+-- InnoDB и так дописывает первичный ключ в конец вторичного индекса, но H2 учитывает только явные столбцы
+CREATE INDEX idx_player_name_id ON player (name, id);
+CREATE INDEX idx_player_level_id ON player (level, id);
+CREATE INDEX idx_player_experience_id ON player (experience, id);
+CREATE INDEX idx_player_birthday_id ON player (birthday, id);
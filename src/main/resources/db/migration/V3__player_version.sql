@@ -0,0 +1,2 @@
+-- Версия строки: увеличивается при каждом изменении игрока и входит в его ETag
+ALTER TABLE player ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
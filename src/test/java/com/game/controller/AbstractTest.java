@@ -3,6 +3,10 @@ package com.game.controller;
 import com.game.config.AppConfig;
 import com.game.config.MyWebAppInit;
 import com.game.config.WebConfig;
+import com.game.index.PlayerColumnStore;
+import com.game.service.PlayerCache;
+import com.game.service.PlayerChangeCounter;
+import org.hibernate.SessionFactory;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +17,16 @@ import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
 @RunWith(SpringJUnit4ClassRunner.class)
 @ActiveProfiles("dev")
 @ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class})
@@ -33,6 +44,11 @@ public abstract class AbstractTest {
 
     @Before
     public void setup() {
+        // test.sql пересоздает таблицу в обход сервиса и Hibernate, поэтому кэши сбрасываем вместе с ней
+        context.getBean(PlayerCache.class).invalidateAll();
+        context.getBean(PlayerChangeCounter.class).increment();
+        context.getBean(PlayerColumnStore.class).invalidate();
+        context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache().evictAllRegions();
         mockMvc = MockMvcBuilders
                 .webAppContextSetup(context)
                 .addFilter(((request, response, chain) -> {
@@ -41,4 +57,14 @@ public abstract class AbstractTest {
                 }))
                 .build();
     }
+
+    // Методы PlayersController возвращают CompletableFuture: ответ появляется только после ASYNC-диспетчеризации
+    ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        ResultActions resultActions = mockMvc.perform(requestBuilder);
+        MvcResult result = resultActions.andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+        return resultActions;
+    }
 }
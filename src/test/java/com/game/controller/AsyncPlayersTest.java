@@ -0,0 +1,65 @@
+package com.game.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Один поток платформы и нулевая очередь: второй одновременный запрос должен сразу получить 503
+@TestPropertySource(properties = {
+        "players.executor.type=platform",
+        "players.executor.corePoolSize=1",
+        "players.executor.maxPoolSize=1",
+        "players.executor.queueCapacity=0"})
+public class AsyncPlayersTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getPlayerReleasesContainerThreadAndCompletesAsynchronously() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rest/players/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    //test2
+    @Test
+    public void requestIsRejectedWithServiceUnavailableWhenExecutorIsSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> blocker = context.getBean(ExecutorService.class).submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        double rejected = rejectedCount();
+        try {
+            started.await(10, TimeUnit.SECONDS);
+            mockMvc.perform(get("/rest/players/count"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            blocker.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals("Отклоненный запрос не учтен в метрике players.executor.rejected.",
+                rejected + 1, rejectedCount(), 0);
+    }
+
+    private double rejectedCount() {
+        return context.getBean(MeterRegistry.class).counter(ExceptionHandlerAspect.REJECTED_METRIC_NAME).count();
+    }
+}
@@ -0,0 +1,120 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Один поток платформы и место в очереди для одного запроса: запись, получившая 503 по таймауту, не должна примениться
+@TestPropertySource(properties = {
+        "players.executor.type=platform",
+        "players.executor.corePoolSize=1",
+        "players.executor.maxPoolSize=1",
+        "players.executor.queueCapacity=1"})
+public class AsyncTimeoutTest extends AbstractTest {
+
+    private static final String NEW_NAME_JSON = "{\"name\": \"Таймаут\"}";
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void queuedWriteIsSkippedAfterTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> blocker = executor().submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        try {
+            started.await(10, TimeUnit.SECONDS);
+            MvcResult result = startChangePlayer();
+            timeout(result);
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            blocker.get(10, TimeUnit.SECONDS);
+        }
+        awaitExecutor();
+
+        assertEquals("Запись из очереди применилась после ответа 503.",
+                testsHelper.getPlayerInfosById(1).name, player(1).name);
+    }
+
+    //test2
+    @Test
+    public void runningWriteIsRolledBackAfterTimeout() throws Exception {
+        // Блокировка строки в другой транзакции не дает записи дойти до фиксации, пока не наступит таймаут
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeUpdate("UPDATE player SET title = title WHERE id = 1");
+
+            MvcResult result = startChangePlayer();
+            timeout(result);
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isServiceUnavailable());
+            connection.commit();
+        }
+        awaitExecutor();
+
+        assertEquals("Запись применилась после ответа 503.",
+                testsHelper.getPlayerInfosById(1).name, player(1).name);
+    }
+
+    private MvcResult startChangePlayer() throws Exception {
+        return mockMvc.perform(post("/rest/players/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(NEW_NAME_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // Так контейнер сообщает об истечении players.async.timeout
+    private void timeout(MvcResult result) throws Exception {
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+    }
+
+    // Пул из одного потока: задача, поставленная последней, выполнится после прерванной записи
+    private void awaitExecutor() throws Exception {
+        executor().submit(() -> null).get(10, TimeUnit.SECONDS);
+    }
+
+    private ExecutorService executor() {
+        return context.getBean(ExecutorService.class);
+    }
+
+    private PlayerInfoTest player(long id) throws Exception {
+        String contentAsString = perform(get("/rest/players/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, PlayerInfoTest.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Генератор ID кэширует выданный блок, а test.sql сбрасывает player_seq перед каждым тестом.
+// Поэтому массовая вставка идет в свежем контексте, и после нее контекст пересоздается,
+// чтобы остальные тесты снова начинали с ID 41
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+public class BatchPlayersTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void batchWithInvalidPlayerTest() throws Exception {
+        perform(post("/rest/players/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.TOO_BIG_EXPERIENCE_JSON + "]"))
+                .andExpect(status().isBadRequest());
+
+        perform(get("/rest/players/41"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test2
+    @Test
+    public void batchWithNotExistPlayerTest() throws Exception {
+        perform(post("/rest/players/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + String.format(TestsHelper.NORMAL_JSON_WITH_ID, 415) + "]"))
+                .andExpect(status().isNotFound());
+    }
+
+    //test3
+    @Test
+    @DirtiesContext
+    public void batchCreateAndUpdateTest() throws Exception {
+        List<String> players = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            players.add(TestsHelper.NORMAL_JSON);
+        }
+        players.add("{\"id\": 1, \"experience\": 63986}");
+
+        ResultActions resultActions = perform(post("/rest/players/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + String.join(",", players) + "]"))
+                .andExpect(status().isOk());
+        String contentAsString = resultActions.andReturn().getResponse().getContentAsString();
+        assertEquals("Возвращается не правильный результат при запросе POST /rest/players/batch.",
+                "{\"created\":120,\"updated\":1}", contentAsString);
+
+        String count = perform(get("/rest/players/count"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Массово созданные игроки не сохранены.", "160", count);
+
+        String updated = perform(get("/rest/players/1"))
+                .andReturn().getResponse().getContentAsString();
+        PlayerInfoTest actual = mapper.readValue(updated, PlayerInfoTest.class);
+        assertEquals("Не пересчитан уровень игрока при массовом обновлении.", 35, actual.level);
+        assertEquals("Не пересчитан уровень игрока при массовом обновлении.", 2614, actual.untilNextLevel);
+    }
+}
@@ -0,0 +1,8 @@
+package com.game.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Те же проверки GET /rest/players/facets, но счетчики берутся из битовых карт колоночного хранилища
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarFacetsTest extends FacetsTest {
+}
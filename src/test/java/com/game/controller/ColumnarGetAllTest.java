@@ -0,0 +1,8 @@
+package com.game.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Те же проверки GET /rest/players, но ответы строятся по колоночному хранилищу в памяти
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarGetAllTest extends GetAllTest {
+}
@@ -0,0 +1,8 @@
+package com.game.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Те же проверки GET /rest/players/count, но подсчет идет по колоночному хранилищу в памяти
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarGetCountTest extends GetCountTest {
+}
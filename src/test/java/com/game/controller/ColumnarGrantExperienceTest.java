@@ -0,0 +1,52 @@
+package com.game.controller;
+
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Те же проверки POST /rest/players/experience, но чтение идет из колоночного хранилища, которое после UPDATE загружается заново
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarGrantExperienceTest extends GrantExperienceTest {
+
+    private static final int GRANTS = 50;
+
+    //test6
+    @Test
+    public void countDuringGrantExperienceTest() throws Exception {
+        String expected = count();
+
+        // Каждое начисление сбрасывает хранилище после фиксации, а чтение в это время должно загрузить его заново
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> grants = writer.submit(() -> {
+                for (int i = 0; i < GRANTS; i++) {
+                    perform(post("/rest/players/experience?amount=1"))
+                            .andExpect(status().isOk());
+                }
+                return null;
+            });
+            while (!grants.isDone()) {
+                assertEquals("Число игроков во время начисления опыта отличается от полного.", expected, count());
+            }
+            grants.get();
+        } finally {
+            writer.shutdown();
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private String count() throws Exception {
+        return perform(get("/rest/players/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
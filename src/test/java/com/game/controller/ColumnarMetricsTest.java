@@ -0,0 +1,30 @@
+package com.game.controller;
+
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Колоночное хранилище выполняет этапы выборки по отдельности, и у каждого свой таймер
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarMetricsTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void metricsContainGetPlayersStageTimers() throws Exception {
+        perform(get("/rest/players?profession=WARRIOR&order=LEVEL")).andExpect(status().isOk());
+
+        String metrics = perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        for (String stage : new String[]{"filter", "sort", "paginate", "mapping"}) {
+            assertTrue("В метриках нет выполненного этапа " + stage + " запроса GET /rest/players.",
+                    metrics.matches("(?s).*players_list_stage_seconds_count\\{stage=\"" + stage + "\",} [1-9].*"));
+        }
+        assertTrue("В метриках нет перцентиля p99 этапа sort запроса GET /rest/players.",
+                metrics.contains("players_list_stage_seconds{stage=\"sort\",quantile=\"0.99\",}"));
+    }
+}
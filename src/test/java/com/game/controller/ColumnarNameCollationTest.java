@@ -0,0 +1,49 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Для MySQL с collation без учета регистра (utf8mb4_0900_ai_ci) хранилище сортирует имена так же
+@TestPropertySource(properties = {"players.query.engine=columnar", "players.query.nameCollation=ci"})
+public class ColumnarNameCollationTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void nameOrderIgnoresCaseTest() throws Exception {
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE player SET name = 'zqb' WHERE id = 1");
+            statement.executeUpdate("UPDATE player SET name = 'ZQA' WHERE id = 2");
+            statement.executeUpdate("UPDATE player SET name = 'zqa' WHERE id = 3");
+            statement.executeUpdate("UPDATE player SET name = 'Zqc' WHERE id = 4");
+        }
+
+        // Имена, равные без учета регистра, идут по ID
+        assertEquals("Неверный порядок имен без учета регистра", Arrays.asList(2L, 3L, 1L, 4L),
+                ids("/rest/players?name=zq&order=NAME&pageSize=10"));
+    }
+
+    private List<Long> ids(String url) throws Exception {
+        String contentAsString = perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        List<PlayerInfoTest> players = mapper.readValue(contentAsString, typeReference);
+        return players.stream().map(player -> player.id).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,64 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Те же проверки GET /rest/players по колоночному хранилищу, но фильтр и сортировка всегда идут в несколько потоков
+@TestPropertySource(properties = {
+        "players.query.engine=columnar",
+        "players.query.parallelism=4",
+        "players.query.parallelThreshold=0"})
+public class ColumnarParallelGetAllTest extends GetAllTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test18
+    @Test
+    public void getAllWithOrderNameSortsByKeysTieBreakById() throws Exception {
+        List<PlayerInfoTest> sorted = new ArrayList<>(testsHelper.getAllPlayers());
+        sorted.sort(Comparator.comparing((PlayerInfoTest player) -> player.name).thenComparing(player -> player.id));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметром order=NAME.",
+                testsHelper.getPlayerInfosByPage(2, 6, sorted), list("/rest/players?order=NAME&pageNumber=2&pageSize=6"));
+    }
+
+    //test19
+    @Test
+    public void getAllWithOrderBirthdaySortsByKeysTieBreakById() throws Exception {
+        List<PlayerInfoTest> sorted = new ArrayList<>(testsHelper.getAllPlayers());
+        sorted.sort(Comparator.comparing((PlayerInfoTest player) -> player.birthday).thenComparing(player -> player.id));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметром order=BIRTHDAY.",
+                testsHelper.getPlayerInfosByPage(0, 40, sorted), list("/rest/players?order=BIRTHDAY&pageSize=40"));
+    }
+
+    //test20
+    @Test
+    public void getAllWithOrderExperienceSortsByKeysTieBreakById() throws Exception {
+        List<PlayerInfoTest> sorted = new ArrayList<>(testsHelper.getPlayerInfosByBaned(false, testsHelper.getAllPlayers()));
+        sorted.sort(Comparator.comparing((PlayerInfoTest player) -> player.experience).thenComparing(player -> player.id));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметром order=EXPERIENCE.",
+                testsHelper.getPlayerInfosByPage(0, 10, sorted), list("/rest/players?banned=false&order=EXPERIENCE&pageSize=10"));
+    }
+
+    private List<PlayerInfoTest> list(String url) throws Exception {
+        String contentAsString = perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
@@ -0,0 +1,95 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Ответы колоночного хранилища сравниваются с ответами БД: запрос с stream=true всегда читает из БД
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarParityTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void nullColumnsMatchDatabaseTest() throws Exception {
+        // V1 допускает NULL в этих столбцах; сервис таких строк не пишет, их оставляют изменения в обход него
+        execute("UPDATE player SET experience = NULL, level = NULL, untilNextLevel = NULL WHERE id IN (1, 2)",
+                "UPDATE player SET banned = NULL WHERE id IN (3, 4)",
+                "UPDATE player SET birthday = NULL WHERE id IN (5, 6)");
+
+        assertMatchesDatabase("order=EXPERIENCE", "order=LEVEL", "order=BIRTHDAY",
+                "order=EXPERIENCE&pageSize=3", "order=BIRTHDAY&pageSize=3",
+                "minExperience=0", "maxLevel=100", "banned=false", "banned=true",
+                "after=0", "before=4102444800000");
+    }
+
+    //test2
+    @Test
+    public void birthdayOfCreatedPlayerMatchesDatabaseTest() throws Exception {
+        // Хранилище загружается до создания игрока и получает его из ответа сервиса, где день рождения -
+        // миллисекунды из запроса, а БД сохранила только дату
+        perform(get("/rest/players/count")).andExpect(status().isOk());
+        long birthday = 988059600123L;
+        perform(post("/rest/players")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON.replace("988059600000", String.valueOf(birthday))))
+                .andExpect(status().isOk());
+
+        // Страницы по 2 строки хранилище отбирает кучей по ключам, полный список - сортировкой
+        assertMatchesDatabase("order=BIRTHDAY", "order=BIRTHDAY&pageSize=2", "order=BIRTHDAY&pageNumber=1&pageSize=2",
+                "after=" + birthday, "before=" + birthday,
+                "after=" + (birthday - 1) + "&before=" + (birthday + 1));
+    }
+
+    //test3
+    @Test
+    public void nameOrderMatchesDatabaseTest() throws Exception {
+        execute("UPDATE player SET name = 'alpha' WHERE id = 1",
+                "UPDATE player SET name = 'Alpha' WHERE id = 2",
+                "UPDATE player SET name = 'ALPHA' WHERE id = 3",
+                "UPDATE player SET name = 'beta' WHERE id = 4",
+                "UPDATE player SET name = 'Beta' WHERE id = 5",
+                "UPDATE player SET name = NULL WHERE id = 6");
+
+        assertMatchesDatabase("order=NAME", "order=NAME&pageSize=3", "order=NAME&name=a");
+    }
+
+    private void execute(String... statements) throws Exception {
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.executeUpdate(sql);
+            }
+        }
+    }
+
+    private void assertMatchesDatabase(String... queries) throws Exception {
+        for (String query : queries) {
+            String url = "/rest/players?" + query + (query.contains("pageSize") ? "" : "&pageSize=100");
+            assertEquals("Колоночное хранилище отвечает не так, как БД, на " + url,
+                    list(url + "&stream=true"), list(url));
+        }
+    }
+
+    private List<PlayerInfoTest> list(String url) throws Exception {
+        String contentAsString = perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
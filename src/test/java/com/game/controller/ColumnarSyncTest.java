@@ -0,0 +1,76 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarSyncTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void columnarEngineSeesUpdatesAndDeletesTest() throws Exception {
+        // Первый запрос загружает хранилище
+        assertEquals("Неверное число игроков до изменений", "40", count("/rest/players/count"));
+
+        perform(post("/rest/players/14")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Джурик\", \"race\": \"ELF\"}"))
+                .andExpect(status().isOk());
+        perform(delete("/rest/players/15"))
+                .andExpect(status().isOk());
+
+        List<PlayerInfoTest> players = list("/rest/players?name=джурик&race=ELF");
+        assertEquals("Колоночное хранилище не увидело обновление игрока", 1, players.size());
+        assertEquals("Колоночное хранилище не увидело обновление игрока", Long.valueOf(14), players.get(0).id);
+        assertEquals("Игрок остался в битовой карте прежней расы", 0, list("/rest/players?name=джурик&race=ORC").size());
+        players = list("/rest/players?name=УРИК");
+        assertEquals("Индекс триграмм не увидел новое имя игрока", 1, players.size());
+        assertEquals("Индекс триграмм не увидел новое имя игрока", Long.valueOf(14), players.get(0).id);
+        assertEquals("Колоночное хранилище не увидело удаление игрока", "39", count("/rest/players/count"));
+    }
+
+    //test2
+    @Test
+    public void columnarEngineSeesCreatedPlayersTest() throws Exception {
+        assertEquals("Неверное число игроков до изменений", "40", count("/rest/players/count"));
+
+        perform(post("/rest/players")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        perform(post("/rest/players/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + TestsHelper.NORMAL_JSON + ", " + TestsHelper.NORMAL_JSON + "]"))
+                .andExpect(status().isOk());
+
+        assertEquals("Колоночное хранилище не увидело новых игроков", "43", count("/rest/players/count"));
+        List<PlayerInfoTest> players = list("/rest/players?order=ID&pageNumber=14&pageSize=3");
+        assertEquals("Новые игроки должны быть в конце списка по ID", 1, players.size());
+    }
+
+    private String count(String url) throws Exception {
+        return perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    private List<PlayerInfoTest> list(String url) throws Exception {
+        String contentAsString = perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
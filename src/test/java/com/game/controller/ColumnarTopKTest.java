@@ -0,0 +1,44 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Страницы, много меньшие выборки, колоночное хранилище отбирает кучей, а не сортирует все строки
+@TestPropertySource(properties = "players.query.engine=columnar")
+public class ColumnarTopKTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void firstPagesMatchFullSortForEveryOrderTest() throws Exception {
+        for (PlayerOrder order : PlayerOrder.values()) {
+            assertFirstPagesMatchFullSort(order);
+        }
+    }
+
+    private void assertFirstPagesMatchFullSort(PlayerOrder order) throws Exception {
+        List<PlayerInfoTest> sorted = list("/rest/players?order=" + order + "&pageSize=100");
+        for (int pageNumber = 0; pageNumber < 2; pageNumber++) {
+            List<PlayerInfoTest> page = list("/rest/players?order=" + order + "&pageNumber=" + pageNumber + "&pageSize=2");
+            assertEquals("Страница не совпадает с полной сортировкой по " + order,
+                    sorted.subList(pageNumber * 2, pageNumber * 2 + 2), page);
+        }
+    }
+
+    private List<PlayerInfoTest> list(String url) throws Exception {
+        String contentAsString = perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
@@ -0,0 +1,104 @@
+package com.game.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ConditionalGetTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getPlayersWithCurrentETagReturnsNotModifiedWithoutQueryTest() throws Exception {
+        String eTag = eTagOf("/rest/players?race=ELF&order=LEVEL");
+        Statistics statistics = statistics();
+        long statements = statistics.getPrepareStatementCount();
+
+        perform(get("/rest/players?race=ELF&order=LEVEL").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        assertEquals("При ответе 304 на GET /rest/players выполнялись запросы к БД",
+                statements, statistics.getPrepareStatementCount());
+    }
+
+    //test2
+    @Test
+    public void getPlayersCountWithCurrentETagReturnsNotModifiedTest() throws Exception {
+        String eTag = eTagOf("/rest/players/count?banned=true");
+
+        perform(get("/rest/players/count?banned=true").header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    //test3
+    @Test
+    public void getPlayersAfterUpdateReturnsNewETagTest() throws Exception {
+        String listETag = eTagOf("/rest/players");
+        String countETag = eTagOf("/rest/players/count");
+
+        updateName(14, "Джурик");
+
+        String newListETag = perform(get("/rest/players").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals("ETag списка игроков не изменился после обновления игрока", listETag, newListETag);
+        perform(get("/rest/players/count").header(HttpHeaders.IF_NONE_MATCH, countETag))
+                .andExpect(status().isOk());
+    }
+
+    //test4
+    @Test
+    public void getPlayerWithCurrentETagReturnsNotModifiedUntilPlayerChangesTest() throws Exception {
+        String eTag = eTagOf("/rest/players/14");
+        String otherETag = eTagOf("/rest/players/15");
+
+        perform(get("/rest/players/14").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        perform(get("/rest/players/14").header(HttpHeaders.IF_NONE_MATCH, otherETag))
+                .andExpect(status().isOk());
+
+        // Изменение другого игрока не меняет ETag этого
+        updateName(15, "Грон");
+        perform(get("/rest/players/14").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        updateName(14, "Джурик");
+        String newETag = perform(get("/rest/players/14").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals("ETag игрока не изменился после его обновления", eTag, newETag);
+    }
+
+    private String eTagOf(String url) throws Exception {
+        String eTag = perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull("Ответ на GET " + url + " не содержит ETag", eTag);
+        return eTag;
+    }
+
+    private void updateName(long playerId, String name) throws Exception {
+        perform(post("/rest/players/" + playerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"" + name + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private Statistics statistics() {
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -18,7 +18,7 @@ public class CreatePlayerTest extends AbstractTest {
     //test1
     @Test
     public void createPlayerEmptyBodyTest() throws Exception {
-        mockMvc.perform(post("/rest/players/")
+        perform(post("/rest/players/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{}"))
                 .andExpect(status().isBadRequest());
@@ -27,7 +27,7 @@ public class CreatePlayerTest extends AbstractTest {
     //test2
     @Test
     public void createPlayerEmptyNameTest() throws Exception {
-        mockMvc.perform(post("/rest/players/")
+        perform(post("/rest/players/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.EMPTY_NAME_JSON))
                 .andExpect(status().isBadRequest());
@@ -36,7 +36,7 @@ public class CreatePlayerTest extends AbstractTest {
     //test3
     @Test
     public void createPlayerBirthdayNegativeTest() throws Exception {
-        mockMvc.perform(post("/rest/players/")
+        perform(post("/rest/players/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.NEGATIVE_BIRTHDAY_JSON))
                 .andExpect(status().isBadRequest());
@@ -45,7 +45,7 @@ public class CreatePlayerTest extends AbstractTest {
     //test4
     @Test
     public void createPlayerExperienceTooBigTest() throws Exception {
-        mockMvc.perform(post("/rest/players/")
+        perform(post("/rest/players/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.TOO_BIG_EXPERIENCE_JSON))
                 .andExpect(status().isBadRequest());
@@ -54,7 +54,7 @@ public class CreatePlayerTest extends AbstractTest {
     //test5
     @Test
     public void createPlayerTitleLengthTooBigTest() throws Exception {
-        mockMvc.perform(post("/rest/players/")
+        perform(post("/rest/players/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.TOO_BIG_TITLE_LENGTH_JSON))
                 .andExpect(status().isBadRequest());
@@ -63,7 +63,7 @@ public class CreatePlayerTest extends AbstractTest {
     //test6
     @Test
     public void createPlayerTest() throws Exception {
-        ResultActions resultActions = mockMvc.perform(post("/rest/players/")
+        ResultActions resultActions = perform(post("/rest/players/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.BANNED_TRUE_JSON))
                 .andExpect(status().isOk());
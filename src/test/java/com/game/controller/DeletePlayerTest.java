@@ -12,31 +12,31 @@ public class DeletePlayerTest extends AbstractTest {
     //test1
     @Test
     public void deletePlayerByIdZeroTest() throws Exception {
-        mockMvc.perform(delete("/rest/players/0"))
+        perform(delete("/rest/players/0"))
                 .andExpect(status().isBadRequest());
     }
 
     //test2
     @Test
     public void deletePlayerByIdNotNumberTest() throws Exception {
-        mockMvc.perform(delete("/rest/players/test"))
+        perform(delete("/rest/players/test"))
                 .andExpect(status().isBadRequest());
     }
 
     //test3
     @Test
     public void deletePlayerByIdNotExistTest() throws Exception {
-        mockMvc.perform(delete("/rest/players/426"))
+        perform(delete("/rest/players/426"))
                 .andExpect(status().isNotFound());
     }
 
     //test4
     @Test
     public void deletePlayerByIdTest() throws Exception {
-        mockMvc.perform(delete("/rest/players/1"))
+        perform(delete("/rest/players/1"))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/rest/players/1"))
+        perform(get("/rest/players/1"))
                 .andExpect(status().isNotFound());
     }
 }
\ No newline at end of file
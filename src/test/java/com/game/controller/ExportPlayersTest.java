@@ -0,0 +1,102 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportPlayersTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportCsvWithRaceFilterReturnsHeaderAndAllMatchingPlayers() throws Exception {
+        MvcResult result = perform(get("/rest/players/export?format=csv&race=ELF"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals("Не правильный заголовок CSV при запросе GET /rest/players/export.",
+                "id,name,title,race,profession,birthday,banned,experience,level,untilNextLevel", lines[0]);
+
+        List<Long> actual = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            actual.add(Long.parseLong(lines[i].substring(0, lines[i].indexOf(','))));
+        }
+        List<Long> expected = new ArrayList<>();
+        for (PlayerInfoTest player : testsHelper.getPlayerInfosByRace(Race.ELF, testsHelper.getAllPlayers())) {
+            expected.add(player.id);
+        }
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players/export с параметрами format=csv и race.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void exportNdjsonWithProfessionFilterReturnsOnePlayerPerLine() throws Exception {
+        MvcResult result = perform(get("/rest/players/export?format=ndjson&profession=WARRIOR"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<PlayerInfoTest> actual = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            actual.add(mapper.readValue(line, PlayerInfoTest.class));
+        }
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByProfession(Profession.WARRIOR, testsHelper.getAllPlayers());
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players/export с параметрами format=ndjson и profession.", expected, actual);
+    }
+
+    //test3
+    @Test
+    public void exportWithAcceptEncodingGzipReturnsCompressedContent() throws Exception {
+        String plain = perform(get("/rest/players/export?format=ndjson"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        MvcResult result = perform(get("/rest/players/export?format=ndjson")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        assertEquals("Сжатая выгрузка GET /rest/players/export не совпадает с несжатой.",
+                plain, gunzip(result.getResponse().getContentAsByteArray()));
+    }
+
+    //test4
+    @Test
+    public void exportWithUnknownFormatReturnsBadRequest() throws Exception {
+        perform(get("/rest/players/export?format=xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String gunzip(byte[] content) throws Exception {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return new String(result.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
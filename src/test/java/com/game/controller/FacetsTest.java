@@ -0,0 +1,72 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Profession;
+import com.game.entity.Race;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class FacetsTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<ObjectNode>> typeReference = new TypeReference<List<ObjectNode>>() {
+    };
+
+    //test1
+    @Test
+    public void getFacetsReturnsEveryBucketTest() throws Exception {
+        List<ObjectNode> facets = facets("/rest/players/facets");
+
+        assertEquals("GET /rest/players/facets должен вернуть все комбинации race x profession x banned",
+                Race.values().length * Profession.values().length * 2, facets.size());
+        assertFacets(testsHelper.getAllPlayers(), facets);
+    }
+
+    //test2
+    @Test
+    public void getFacetsWithFiltersTest() throws Exception {
+        List<ObjectNode> facets = facets("/rest/players/facets?minLevel=30&race=ELF");
+
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByRace(Race.ELF,
+                testsHelper.getPlayerInfosByMinLevel(30, testsHelper.getAllPlayers()));
+        assertFacets(expected, facets);
+    }
+
+    //test3
+    @Test
+    public void getFacetsWithBannedFilterTest() throws Exception {
+        List<ObjectNode> facets = facets("/rest/players/facets?banned=true");
+
+        assertFacets(testsHelper.getPlayerInfosByBaned(true, testsHelper.getAllPlayers()), facets);
+    }
+
+    private List<ObjectNode> facets(String url) throws Exception {
+        String contentAsString = perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+
+    private void assertFacets(List<PlayerInfoTest> players, List<ObjectNode> facets) {
+        for (ObjectNode facet : facets) {
+            Race race = Race.valueOf(facet.get("race").asText());
+            Profession profession = Profession.valueOf(facet.get("profession").asText());
+            boolean banned = facet.get("banned").asBoolean();
+            long expected = players.stream()
+                    .filter(player -> player.race == race && player.profession == profession && player.banned == banned)
+                    .count();
+            assertEquals("Неверное число игроков в комбинации " + race + " x " + profession + " x banned=" + banned,
+                    expected, facet.get("count").asLong());
+        }
+    }
+}
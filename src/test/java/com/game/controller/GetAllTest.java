@@ -11,10 +11,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetAllTest extends AbstractTest {
@@ -27,7 +31,7 @@ public class GetAllTest extends AbstractTest {
     //test1
     @Test
     public void getAllWithoutFiltersReturnAllPlayers() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players"))
+        ResultActions resultActions = perform(get("/rest/players"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -42,7 +46,7 @@ public class GetAllTest extends AbstractTest {
     //test2
     @Test
     public void getAllWithFiltersNamePageNumber() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?name=ра&pageNumber=1"))
+        ResultActions resultActions = perform(get("/rest/players?name=ра&pageNumber=1"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -58,7 +62,7 @@ public class GetAllTest extends AbstractTest {
     //test3
     @Test
     public void getAllWithFiltersTitlePageSize() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?title=ой&pageSize=4"))
+        ResultActions resultActions = perform(get("/rest/players?title=ой&pageSize=4"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -76,7 +80,7 @@ public class GetAllTest extends AbstractTest {
     public void getAllWithFiltersRaceProfessionAfterBefore() throws Exception {
         //after 00:00 01.01.2003
         //before 00:00 01.01.2006
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?race=HUMAN&profession=WARRIOR&after=1041372000000&before=1136066400000"))
+        ResultActions resultActions = perform(get("/rest/players?race=HUMAN&profession=WARRIOR&after=1041372000000&before=1136066400000"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -97,7 +101,7 @@ public class GetAllTest extends AbstractTest {
     //test5
     @Test
     public void getAllWithFiltersRaceProfessionMinExperienceMaxExperience() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?race=ELF&profession=SORCERER&minExperience=50000&maxExperience=150000"))
+        ResultActions resultActions = perform(get("/rest/players?race=ELF&profession=SORCERER&minExperience=50000&maxExperience=150000"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -117,7 +121,7 @@ public class GetAllTest extends AbstractTest {
     //test6
     @Test
     public void getAllWithFiltersBannedMinLevelMaxLevel() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?banned=false&minLevel=10&maxLevel=30"))
+        ResultActions resultActions = perform(get("/rest/players?banned=false&minLevel=10&maxLevel=30"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -136,7 +140,7 @@ public class GetAllTest extends AbstractTest {
     //test7
     @Test
     public void getAllWithFiltersBannedMaxLevel() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?banned=false&maxLevel=20"))
+        ResultActions resultActions = perform(get("/rest/players?banned=false&maxLevel=20"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -156,7 +160,7 @@ public class GetAllTest extends AbstractTest {
     public void getAllWithFiltersAfterBeforeMinExperienceMaxExperience() throws Exception {
         //after 00:00 01.01.2005
         //before 00:00 01.01.2009
-        ResultActions resultActions = mockMvc.perform(get("/rest/players?after=1104530400000&before=1230760800000&minExperience=30000&maxExperience=100000&pageNumber=1"))
+        ResultActions resultActions = perform(get("/rest/players?after=1104530400000&before=1230760800000&minExperience=30000&maxExperience=100000&pageNumber=1"))
                 .andExpect(status().isOk());
 
         MvcResult result = resultActions.andReturn();
@@ -172,4 +176,157 @@ public class GetAllTest extends AbstractTest {
 
         assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметрами after, before, minExperience и maxExperience.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test9
+    @Test
+    public void getAllWithFiltersTitleIgnoreCaseMinLevelMaxLevelInclusive() throws Exception {
+        ResultActions resultActions = perform(get("/rest/players?title=ЖАЖДОЙ&minLevel=23&maxLevel=23"))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<PlayerInfoTest> expected = Collections.singletonList(testsHelper.getPlayerInfosById(14));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметрами title в другом регистре, minLevel и maxLevel.", expected, actual);
+    }
+
+    //test10
+    @Test
+    public void getAllWithOrderLevelPageNumberPageSizeTieBreakById() throws Exception {
+        ResultActions resultActions = perform(get("/rest/players?order=LEVEL&pageNumber=1&pageSize=5"))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<PlayerInfoTest> sorted = new ArrayList<>(testsHelper.getAllPlayers());
+        sorted.sort(Comparator.comparing((PlayerInfoTest player) -> player.level).thenComparing(player -> player.id));
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByPage(1, 5, sorted);
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметрами order, pageNumber и pageSize.", expected, actual);
+    }
+
+    //test11
+    @Test
+    public void getAllWithUnknownOrderSortsById() throws Exception {
+        ResultActions resultActions = perform(get("/rest/players?order=UNKNOWN&pageNumber=2"))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<PlayerInfoTest> expected = testsHelper.getPlayerInfosByPage(2, 3, testsHelper.getAllPlayers());
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с неизвестным значением order.", expected, actual);
+    }
+
+    //test12
+    @Test
+    public void getAllWithCursorWalksAllPagesInBirthdayOrder() throws Exception {
+        List<PlayerInfoTest> sorted = new ArrayList<>(testsHelper.getPlayerInfosByBaned(false, testsHelper.getAllPlayers()));
+        sorted.sort(Comparator.comparing((PlayerInfoTest player) -> player.birthday).thenComparing(player -> player.id));
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/players с параметром cursor.",
+                sorted, getAllPagesByCursor("/rest/players?banned=false&order=BIRTHDAY&pageSize=4"));
+    }
+
+    //test13
+    @Test
+    public void getAllWithCursorWalksAllPagesInNameOrder() throws Exception {
+        List<PlayerInfoTest> sorted = new ArrayList<>(testsHelper.getAllPlayers());
+        sorted.sort(Comparator.comparing((PlayerInfoTest player) -> player.name).thenComparing(player -> player.id));
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/players с параметром cursor.",
+                sorted, getAllPagesByCursor("/rest/players?order=NAME&pageSize=7"));
+    }
+
+    //test14
+    @Test
+    public void getAllWithStreamReturnsAllMatchingPlayersWithoutPageSize() throws Exception {
+        ResultActions resultActions = perform(get("/rest/players?stream=true&race=HUMAN&order=EXPERIENCE"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<PlayerInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<PlayerInfoTest> expected = new ArrayList<>(testsHelper.getPlayerInfosByRace(Race.HUMAN, testsHelper.getAllPlayers()));
+        expected.sort(Comparator.comparing((PlayerInfoTest player) -> player.experience).thenComparing(player -> player.id));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/players с параметрами stream, race и order.", expected, actual);
+    }
+
+    //test15
+    @Test
+    public void getAllWithStreamAndPageSizeReturnsSamePageAsRegularRequest() throws Exception {
+        String url = "/rest/players?title=ой&pageNumber=1&pageSize=4";
+        String regular = perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String streamed = perform(get(url + "&stream=true"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Потоковый режим GET /rest/players возвращает не ту страницу, что обычный запрос.",
+                mapper.readValue(regular, typeReference), mapper.readValue(streamed, typeReference));
+    }
+
+    //test16
+    @Test
+    public void getAllWithZeroOrNegativePageSizeReturnsEmptyList() throws Exception {
+        for (String url : new String[]{"/rest/players?pageSize=0", "/rest/players?pageSize=-1&pageNumber=2",
+                "/rest/players?pageSize=0&cursor=", "/rest/players?pageSize=0&stream=true"}) {
+            String contentAsString = perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertEquals("При запросе " + url + " должен возвращаться пустой список.",
+                    Collections.emptyList(), mapper.readValue(contentAsString, typeReference));
+        }
+    }
+
+    //test17
+    @Test
+    public void getAllWithNegativePageNumberReturnsBadRequest() throws Exception {
+        perform(get("/rest/players?pageNumber=-1&pageSize=3"))
+                .andExpect(status().isBadRequest());
+        perform(get("/rest/players?pageNumber=-1&pageSize=3&stream=true"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test18
+    @Test
+    public void getAllWithTooLargeOffsetReturnsBadRequest() throws Exception {
+        // pageNumber * pageSize больше Integer.MAX_VALUE: при приведении к int смещение стало бы отрицательным
+        // или меньшим и вернуло бы 500 или чужую страницу
+        for (String url : new String[]{"/rest/players?pageNumber=1000000&pageSize=3000",
+                "/rest/players?pageNumber=2147483647&pageSize=3", "/rest/players?pageNumber=1000000&pageSize=3000&stream=true"}) {
+            perform(get(url))
+                    .andExpect(status().isBadRequest());
+        }
+
+        // Последнее допустимое смещение - пустая страница, как и любая страница за концом выборки
+        String contentAsString = perform(get("/rest/players?pageNumber=715827882&pageSize=3"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Страница за концом выборки должна быть пустой.",
+                Collections.emptyList(), mapper.readValue(contentAsString, typeReference));
+    }
+
+    private List<PlayerInfoTest> getAllPagesByCursor(String url) throws Exception {
+        List<PlayerInfoTest> result = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            MvcResult page = perform(get(url).param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            result.addAll(mapper.readValue(page.getResponse().getContentAsString(), typeReference));
+            cursor = page.getResponse().getHeader("X-Next-Cursor");
+        }
+        return result;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.test.web.servlet.ResultActions;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetPlayerTest extends AbstractTest {
@@ -16,21 +17,21 @@ public class GetPlayerTest extends AbstractTest {
     //test1
     @Test
     public void getPlayerByIdEqualZeroTest() throws Exception {
-        mockMvc.perform(get("/rest/players/0"))
+        perform(get("/rest/players/0"))
                 .andExpect(status().isBadRequest());
     }
 
     //test2
     @Test
     public void getPlayerByIdNotNumberTest() throws Exception {
-        mockMvc.perform(get("/rest/players/test"))
+        perform(get("/rest/players/test"))
                 .andExpect(status().isBadRequest());
     }
 
     //test3
     @Test
     public void getPlayerByIdNotExistTest() throws Exception {
-        mockMvc.perform(get("/rest/players/410"))
+        perform(get("/rest/players/410"))
                 .andExpect(status().isNotFound());
     }
 
@@ -39,7 +40,7 @@ public class GetPlayerTest extends AbstractTest {
     public void getPlayerByIdTest() throws Exception {
         PlayerInfoTest expected = new TestsHelper().getPlayerInfosById(14);
 
-        ResultActions resultActions = mockMvc.perform(get("/rest/players/14"))
+        ResultActions resultActions = perform(get("/rest/players/14"))
                 .andExpect(status().isOk());
 
         String contentAsString = resultActions.andReturn().getResponse().getContentAsString();
@@ -47,4 +48,23 @@ public class GetPlayerTest extends AbstractTest {
         PlayerInfoTest actual = mapper.readValue(contentAsString, PlayerInfoTest.class);
         assertEquals("Вернулся неправильный объект при запросе GET /rest/players/{id}", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test5
+    @Test
+    public void getPlayerAfterUpdateReturnsNewDataTest() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        perform(get("/rest/players/14"))
+                .andExpect(status().isOk());
+
+        perform(post("/rest/players/14")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Джурик\"}"))
+                .andExpect(status().isOk());
+
+        String contentAsString = perform(get("/rest/players/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        PlayerInfoTest actual = mapper.readValue(contentAsString, PlayerInfoTest.class);
+        assertEquals("Вернулся устаревший объект при запросе GET /rest/players/{id} после обновления", "Джурик", actual.name);
+    }
+}
@@ -0,0 +1,119 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.controller.utils.PlayerInfoTest;
+import com.game.controller.utils.TestsHelper;
+import com.game.entity.Race;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GrantExperienceTest extends AbstractTest {
+
+    private final TestsHelper testsHelper = new TestsHelper();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TypeReference<List<PlayerInfoTest>> typeReference = new TypeReference<List<PlayerInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void grantExperienceWithBadAmountTest() throws Exception {
+        perform(post("/rest/players/experience?amount=0"))
+                .andExpect(status().isBadRequest());
+        perform(post("/rest/players/experience?amount=10000001"))
+                .andExpect(status().isBadRequest());
+        perform(post("/rest/players/experience"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test2
+    @Test
+    public void grantExperienceUpdatesOnlyMatchingPlayersTest() throws Exception {
+        // Списки и игрок читаются до изменения, чтобы попасть в кэши
+        list("/rest/players?pageSize=100");
+        perform(get("/rest/players/1")).andExpect(status().isOk());
+
+        List<PlayerInfoTest> before = testsHelper.getAllPlayers();
+        List<PlayerInfoTest> dwarfs = testsHelper.getPlayerInfosByRace(Race.DWARF, before);
+
+        String updated = perform(post("/rest/players/experience?race=DWARF&amount=12345"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertEquals("Неверное число измененных игроков", String.valueOf(dwarfs.size()), updated);
+
+        for (PlayerInfoTest player : list("/rest/players?pageSize=100")) {
+            assertPlayerExperience(player, expectedExperience(player.id, 12345));
+        }
+        assertPlayerExperience(playerInfo("/rest/players/1"), expectedExperience(1, 12345));
+        assertEquals("Неверное число игроков по новому опыту", String.valueOf(dwarfs.size()),
+                count("/rest/players/count?race=DWARF&minExperience=12345"));
+    }
+
+    //test3
+    @Test
+    public void grantExperienceStopsAtMaxExperienceTest() throws Exception {
+        String updated = perform(post("/rest/players/experience?name=" + testsHelper.getPlayerInfosById(1).name + "&amount=10000000"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertEquals("Неверное число измененных игроков", "1", updated);
+
+        assertPlayerExperience(playerInfo("/rest/players/1"), 10_000_000);
+    }
+
+    //test4
+    @Test
+    public void grantExperienceWithoutMatchingPlayersTest() throws Exception {
+        String updated = perform(post("/rest/players/experience?name=nobody&amount=100"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertEquals("Неверное число измененных игроков", "0", updated);
+        assertEquals("Игроки не должны измениться", testsHelper.getAllPlayers(), list("/rest/players?pageSize=100"));
+    }
+
+    //test5
+    @Test
+    public void grantExperienceSkipsPlayersAtMaxExperienceTest() throws Exception {
+        String name = testsHelper.getPlayerInfosById(1).name;
+        perform(post("/rest/players/experience?name=" + name + "&amount=10000000"))
+                .andExpect(status().isOk());
+        String eTag = perform(get("/rest/players/1")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String updated = perform(post("/rest/players/experience?name=" + name + "&amount=1"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertEquals("Игрок с максимальным опытом не должен считаться измененным", "0", updated);
+        perform(get("/rest/players/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    private int expectedExperience(long id, int dwarfAmount) {
+        PlayerInfoTest source = testsHelper.getPlayerInfosById(id);
+        return source.race == Race.DWARF ? source.experience + dwarfAmount : source.experience;
+    }
+
+    private void assertPlayerExperience(PlayerInfoTest player, int experience) {
+        int level = (((int) Math.sqrt(2500 + 200 * experience)) - 50) / 100;
+        assertEquals("Неверный опыт игрока " + player.id, Integer.valueOf(experience), player.experience);
+        assertEquals("Неверный уровень игрока " + player.id, Integer.valueOf(level), player.level);
+        assertEquals("Неверный опыт до следующего уровня игрока " + player.id,
+                Integer.valueOf(50 * (level + 1) * (level + 2) - experience), player.untilNextLevel);
+    }
+
+    private PlayerInfoTest playerInfo(String url) throws Exception {
+        String contentAsString = perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, PlayerInfoTest.class);
+    }
+
+    private String count(String url) throws Exception {
+        return perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    private List<PlayerInfoTest> list(String url) throws Exception {
+        String contentAsString = perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return mapper.readValue(contentAsString, typeReference);
+    }
+}
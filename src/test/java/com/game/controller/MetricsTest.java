@@ -0,0 +1,47 @@
+package com.game.controller;
+
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetricsTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void metricsContainRequestLatencyPercentilesByUriAndStatus() throws Exception {
+        perform(get("/rest/players?race=ELF")).andExpect(status().isOk());
+        perform(get("/rest/players/1000")).andExpect(status().isNotFound());
+
+        String metrics = scrape();
+
+        assertTrue("В метриках нет числа успешных запросов GET /rest/players.",
+                metrics.matches("(?s).*http_server_requests_seconds_count\\{[^}]*status=\"200\",uri=\"/rest/players\",?} .*"));
+        assertTrue("В метриках нет числа запросов GET /rest/players/{playerId} со статусом 404.",
+                metrics.matches("(?s).*http_server_requests_seconds_count\\{[^}]*status=\"404\",uri=\"/rest/players/\\{playerId}\",?} .*"));
+        assertTrue("В метриках нет перцентиля p99 времени запроса GET /rest/players.",
+                metrics.matches("(?s).*http_server_requests_seconds\\{[^}]*uri=\"/rest/players\",quantile=\"0.99\",} .*"));
+    }
+
+    //test2
+    @Test
+    public void metricsContainGetPlayersQueryTimer() throws Exception {
+        perform(get("/rest/players?profession=WARRIOR&order=LEVEL")).andExpect(status().isOk());
+
+        String metrics = scrape();
+
+        assertTrue("В метриках нет таймера выполнения запроса GET /rest/players.",
+                metrics.contains("players_list_query_seconds_count "));
+        assertTrue("В метриках нет перцентиля p99 выполнения запроса GET /rest/players.",
+                metrics.contains("players_list_query_seconds{quantile=\"0.99\",}"));
+        assertTrue("В метриках нет выполненного этапа db_fetch запроса GET /rest/players.",
+                metrics.matches("(?s).*players_list_stage_seconds_count\\{stage=\"db_fetch\",} [1-9].*"));
+    }
+
+    private String scrape() throws Exception {
+        return perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.game.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class StatisticsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void getPoolStatisticsTest() throws Exception {
+        JsonNode stats = getStatistics("/rest/stats/pool");
+        assertTrue("Нет статистики пула соединений при запросе GET /rest/stats/pool.", stats.has("activeConnections"));
+    }
+
+    //test2
+    @Test
+    public void repeatedGetPlayerIsServedFromCacheTest() throws Exception {
+        long hitsBefore = getStatistics("/rest/stats/cache").get("hitCount").asLong();
+
+        perform(get("/rest/players/7")).andExpect(status().isOk());
+        perform(get("/rest/players/7")).andExpect(status().isOk());
+
+        long hitsAfter = getStatistics("/rest/stats/cache").get("hitCount").asLong();
+        assertEquals("Повторный запрос GET /rest/players/{id} не попал в кэш.", hitsBefore + 1, hitsAfter);
+    }
+
+    //test3
+    @Test
+    public void repeatedCountIsServedFromQueryCacheTest() throws Exception {
+        long hitsBefore = getQueryCacheHits();
+
+        perform(get("/rest/players/count?race=ELF&banned=false")).andExpect(status().isOk());
+        perform(get("/rest/players/count?race=ELF&banned=false")).andExpect(status().isOk());
+
+        assertEquals("Повторный запрос GET /rest/players/count не попал в кэш запросов.", hitsBefore + 1, getQueryCacheHits());
+    }
+
+    private long getQueryCacheHits() throws Exception {
+        return getStatistics("/rest/stats/hibernate").get("default-query-results-region").get("hitCount").asLong();
+    }
+
+    private JsonNode getStatistics(String url) throws Exception {
+        String contentAsString = perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(contentAsString);
+    }
+}
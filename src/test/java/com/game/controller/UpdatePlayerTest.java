@@ -6,12 +6,17 @@ import com.game.controller.utils.PlayerInfoTest;
 import com.game.controller.utils.TestsHelper;
 import com.game.entity.Race;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import javax.sql.DataSource;
+
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -23,7 +28,7 @@ public class UpdatePlayerTest extends AbstractTest {
     //test1
     @Test
     public void updatePlayerIdZeroTest() throws Exception {
-        mockMvc.perform(post("/rest/players/0")
+        perform(post("/rest/players/0")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.NORMAL_JSON))
                 .andExpect(status().isBadRequest());
@@ -32,7 +37,7 @@ public class UpdatePlayerTest extends AbstractTest {
     //test2
     @Test
     public void updatePlayerNotExistTest() throws Exception {
-        mockMvc.perform(post("/rest/players/415")
+        perform(post("/rest/players/415")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.NORMAL_JSON))
                 .andExpect(status().isNotFound());
@@ -43,7 +48,7 @@ public class UpdatePlayerTest extends AbstractTest {
     public void updatePlayerInvalidNameTest() throws Exception {
         PlayerInfoTest playerInfoTest = testsHelper.getPlayerInfosById(1);
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
+        perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.EMPTY_NAME_JSON))
                 .andExpect(status().isBadRequest());
@@ -54,7 +59,7 @@ public class UpdatePlayerTest extends AbstractTest {
     public void updatePlayerInvalidBirthdayTest() throws Exception {
         PlayerInfoTest playerInfoTest = testsHelper.getPlayerInfosById(1);
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
+        perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.NEGATIVE_BIRTHDAY_JSON))
                 .andExpect(status().isBadRequest());
@@ -65,7 +70,7 @@ public class UpdatePlayerTest extends AbstractTest {
     public void updatePlayerInvalidExperienceTest() throws Exception {
         PlayerInfoTest playerInfoTest = testsHelper.getPlayerInfosById(1);
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
+        perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.TOO_BIG_EXPERIENCE_JSON))
                 .andExpect(status().isBadRequest());
@@ -76,7 +81,7 @@ public class UpdatePlayerTest extends AbstractTest {
     public void updatePlayerInvalidExperienceTest2() throws Exception {
         PlayerInfoTest playerInfoTest = testsHelper.getPlayerInfosById(1);
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
+        perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestsHelper.NEGATIVE_EXPERIENCE_JSON))
                 .andExpect(status().isBadRequest());
@@ -89,7 +94,7 @@ public class UpdatePlayerTest extends AbstractTest {
         expected.level = 35;
         expected.untilNextLevel = 2614;
 
-        ResultActions resultActions = mockMvc.perform(post("/rest/players/5")
+        ResultActions resultActions = perform(post("/rest/players/5")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(String.format(TestsHelper.NORMAL_JSON_WITH_ID, 8L)))
                 .andExpect(status().isOk());
@@ -106,7 +111,7 @@ public class UpdatePlayerTest extends AbstractTest {
     public void updatePlayerEmptyBodyTest() throws Exception {
         PlayerInfoTest expected = testsHelper.getPlayerInfosById(17);
 
-        ResultActions resultActions = mockMvc.perform(post("/rest/players/17")
+        ResultActions resultActions = perform(post("/rest/players/17")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{}"))
                 .andExpect(status().isOk());
@@ -124,7 +129,7 @@ public class UpdatePlayerTest extends AbstractTest {
         expected.level = 35;
         expected.untilNextLevel = 2614;
 
-        ResultActions resultActions = mockMvc.perform(post("/rest/players/23")
+        ResultActions resultActions = perform(post("/rest/players/23")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(String.format(TestsHelper.NORMAL_JSON_WITH_LEVEL, "9")))
                 .andExpect(status().isOk());
@@ -147,7 +152,7 @@ public class UpdatePlayerTest extends AbstractTest {
         PlayerInfoTest expected = new PlayerInfoTest(playerInfoTest.id, newName, playerInfoTest.title, playerInfoTest.race, playerInfoTest.profession,
                 playerInfoTest.birthday, newBanned, newExperience, 6, 300);
 
-        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
+        ResultActions resultActions = perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(String.format(TestsHelper.JSON_SKELETON, newName, newBanned, newExperience)))
                 .andExpect(status().isOk());
@@ -171,7 +176,7 @@ public class UpdatePlayerTest extends AbstractTest {
         PlayerInfoTest expected = new PlayerInfoTest(playerInfoTest.id, playerInfoTest.name, newTitle, newRace, newProfession, newBirthday,
                 playerInfoTest.banned, playerInfoTest.experience, playerInfoTest.level, playerInfoTest.untilNextLevel);
 
-        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
+        ResultActions resultActions = perform(MockMvcRequestBuilders.post("/rest/players/" + playerInfoTest.id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(String.format(TestsHelper.JSON_SKELETON_2, newTitle, newRace, newProfession, newBirthday)))
                 .andExpect(status().isOk());
@@ -181,4 +186,65 @@ public class UpdatePlayerTest extends AbstractTest {
 
         assertEquals("При запросе POST /rest/players/{id} игрок должен обновляться и рейтинг пересчитываться", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test12
+    @Test
+    public void updatePlayerWithStaleIfMatchTest() throws Exception {
+        String eTag = perform(get("/rest/players/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newETag = perform(post("/rest/players/14")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Джурик\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals("При запросе POST /rest/players/{id} должен возвращаться новый ETag игрока", eTag, newETag);
+
+        perform(post("/rest/players/14")
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Джур\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        String contentAsString = perform(get("/rest/players/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Запрос POST /rest/players/{id} с устаревшим If-Match не должен изменять игрока",
+                "Джурик", mapper.readValue(contentAsString, PlayerInfoTest.class).name);
+    }
+
+    //test13
+    @Test
+    public void updatePlayerIfMatchOtherPlayerTest() throws Exception {
+        String otherETag = perform(get("/rest/players/15"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(post("/rest/players/14")
+                .header(HttpHeaders.IF_MATCH, otherETag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Джурик\"}"))
+                .andExpect(status().isPreconditionFailed());
+        perform(post("/rest/players/14")
+                .header(HttpHeaders.IF_MATCH, "*")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Джурик\"}"))
+                .andExpect(status().isOk());
+    }
+
+    //test14
+    @Test
+    public void updatePlayerChangedConcurrentlyTest() throws Exception {
+        // Игрок попадает в кэш второго уровня, после чего строку меняют в обход Hibernate:
+        // изменение читает из кэша устаревшую версию, как если бы его опередила параллельная запись
+        perform(get("/rest/players/14")).andExpect(status().isOk());
+        new JdbcTemplate(context.getBean(DataSource.class)).update("UPDATE player SET version = version + 1 WHERE id = 14");
+
+        perform(post("/rest/players/14")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Джурик\"}"))
+                .andExpect(status().isConflict());
+    }
+}